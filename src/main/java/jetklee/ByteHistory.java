@@ -0,0 +1,112 @@
+package jetklee;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Write history of one byte of a memory object along the path from the root to a node. Only the diffs of the
+ * nodes which add or change the object are inspected, they are found in the object lifetime index of the loaded
+ * tree if there is one, otherwise the ancestors are walked. The complete memory is never reconstructed.
+ */
+public class ByteHistory {
+    /**
+     * Write of the byte recorded by one node. A value is null if the node does not write that part of the byte,
+     * all of them are null if the node only removes the byte.
+     *
+     * @param node          node which writes the byte.
+     * @param type          whether the node adds the object or changes it.
+     * @param concreteValue written concrete value.
+     * @param concreteMask  written concrete mask, "0" if the byte is not concrete.
+     * @param symbolicValue written symbolic value.
+     */
+    public record ByteWrite(Node node, ExecutionState.OperationType type, String concreteValue, String concreteMask,
+                            String symbolicValue) {
+    }
+
+    /**
+     * @param node      last node of the path.
+     * @param objID     ID of the object.
+     * @param planeType plane of the object.
+     * @param index     index of the byte in the plane.
+     * @return writes of the byte from the last addition of the object up to the node, the oldest one first.
+     */
+    public static List<ByteWrite> getHistory(Node node, int objID, ExecutionState.Plane.PlaneType planeType,
+                                             int index) {
+        List<ByteWrite> history = new ArrayList<>();
+        for (Node writer : getWritingAncestors(node, objID)) {
+            ExecutionState.ObjectState objectState = findObjectState(writer, objID);
+            if (objectState == null) {
+                continue;
+            }
+            ByteWrite write = getWrite(writer, objectState, planeType, index);
+            if (write != null) {
+                history.add(write);
+            }
+            if (objectState.type() == ExecutionState.OperationType.ADDITION) {
+                // older writes belong to an object which was deleted before
+                break;
+            }
+        }
+        Collections.reverse(history);
+        return history;
+    }
+
+    /**
+     * @return nodes on the path which add or change the object, the nearest one first.
+     */
+    private static List<Node> getWritingAncestors(Node node, int objID) {
+        ObjectLifetimeIndex index = CompleteMemoryRetriever.getLifetimeIndex();
+        List<Node> writers = index == null ? null : index.getWritingAncestors(node, objID);
+        if (writers != null) {
+            return writers;
+        }
+        writers = new ArrayList<>();
+        for (Node current = node; current != null; current = current.getParent()) {
+            if (findObjectState(current, objID) != null) {
+                writers.add(current);
+            }
+        }
+        return writers;
+    }
+
+    private static ExecutionState.ObjectState findObjectState(Node node, int objID) {
+        ExecutionState.Memory memory = node.getExecutionState().getMemory();
+        if (memory == null) {
+            return null;
+        }
+        for (ExecutionState.ObjectState addition : memory.additions()) {
+            if (addition.objID() == objID) {
+                return addition;
+            }
+        }
+        for (ExecutionState.ObjectState change : memory.changes()) {
+            if (change.objID() == objID) {
+                return change;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the write of the byte by the node or null if the node neither writes nor removes the byte.
+     */
+    private static ByteWrite getWrite(Node node, ExecutionState.ObjectState objectState,
+                                      ExecutionState.Plane.PlaneType planeType, int index) {
+        ExecutionState.Plane plane = planeType == ExecutionState.Plane.PlaneType.SEGMENT
+                ? objectState.segmentPlane() : objectState.offsetPlane();
+        if (plane == null) {
+            return null;
+        }
+        String concreteValue = plane.concreteStore().additions().get(index);
+        String concreteMask = plane.concreteMask().additions().get(index);
+        String symbolicValue = plane.knownSymbolics().additions().get(index);
+        boolean removed = plane.concreteStore().deletions().get(index) != null
+                || plane.concreteMask().deletions().get(index) != null
+                || plane.knownSymbolics().deletions().get(index) != null;
+        if (concreteValue == null && concreteMask == null && symbolicValue == null && !removed) {
+            return null;
+        }
+        return new ByteWrite(node, objectState.type(), concreteValue, concreteMask, symbolicValue);
+    }
+}
@@ -0,0 +1,169 @@
+package jetklee;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of reconstructed complete memories and of the checkpoints created during the reconstructions.
+ * An entry is weighted by the estimated size of the whole memory. The memories share most of their content with
+ * each other, so the total weight overestimates the retained memory, but it never falls below it however the
+ * entries share their content. The least recently used entries are evicted once the total weight exceeds
+ * the capacity.
+ */
+public class CompleteMemoryCache {
+    // object header, record fields and list slot of one object state
+    private static final long OBJECT_STATE_WEIGHT = 128;
+    private static final long BYTE_WEIGHT = 2;
+    private static final long UPDATE_WEIGHT = 48;
+
+    private record Entry(PersistentIntMap<ExecutionState.ObjectState> memory, long weight, boolean checkpoint) {
+    }
+
+    private final long capacity;
+    private final LinkedHashMap<ExecutionState, Entry> entries;
+    private long weight;
+    private int checkpoints;
+    private long checkpointWeight;
+    private long hits;
+    private long ancestorHits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param capacity maximal total weight of the cached memories in bytes.
+     */
+    public CompleteMemoryCache(long capacity) {
+        this.capacity = capacity;
+        entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * @param es execution state whose complete memory is requested.
+     * @return cached complete memory or null.
+     */
+    public synchronized PersistentIntMap<ExecutionState.ObjectState> get(ExecutionState es) {
+        Entry entry = entries.get(es);
+        if (entry == null) {
+            return null;
+        }
+        ++hits;
+        return entry.memory();
+    }
+
+    /**
+     * Looks up complete memory of an ancestor to start the reconstruction from.
+     *
+     * @param es execution state of an ancestor.
+     * @return cached complete memory or null.
+     */
+    public synchronized PersistentIntMap<ExecutionState.ObjectState> getAncestor(ExecutionState es) {
+        Entry entry = entries.get(es);
+        if (entry == null) {
+            return null;
+        }
+        ++ancestorHits;
+        return entry.memory();
+    }
+
+    /**
+     * Stores a reconstructed memory, one reconstruction counts as one miss.
+     *
+     * @param es     execution state whose complete memory was reconstructed.
+     * @param memory complete memory keyed by the object ID.
+     */
+    public synchronized void put(ExecutionState es, PersistentIntMap<ExecutionState.ObjectState> memory) {
+        ++misses;
+        store(es, memory, false);
+    }
+
+    /**
+     * Stores complete memory of an ancestor passed during a reconstruction, later reconstructions of its
+     * descendants start from it.
+     *
+     * @param es     execution state at the depth of a checkpoint.
+     * @param memory complete memory keyed by the object ID.
+     */
+    public synchronized void putCheckpoint(ExecutionState es, PersistentIntMap<ExecutionState.ObjectState> memory) {
+        if (!entries.containsKey(es)) {
+            store(es, memory, true);
+        }
+    }
+
+    private void store(ExecutionState es, PersistentIntMap<ExecutionState.ObjectState> memory, boolean checkpoint) {
+        long memoryWeight = estimateWeight(memory);
+        if (memoryWeight > capacity) {
+            return;
+        }
+        Entry previous = entries.put(es, new Entry(memory, memoryWeight, checkpoint));
+        if (previous != null) {
+            subtract(previous);
+        }
+        weight += memoryWeight;
+        if (checkpoint) {
+            ++checkpoints;
+            checkpointWeight += memoryWeight;
+        }
+
+        Iterator<Entry> it = entries.values().iterator();
+        while (weight > capacity && it.hasNext()) {
+            subtract(it.next());
+            it.remove();
+            ++evictions;
+        }
+    }
+
+    private void subtract(Entry entry) {
+        weight -= entry.weight();
+        if (entry.checkpoint()) {
+            --checkpoints;
+            checkpointWeight -= entry.weight();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+        checkpoints = 0;
+        checkpointWeight = 0;
+        hits = 0;
+        ancestorHits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    /**
+     * @return statistics of the cache in a human-readable form.
+     */
+    public synchronized String getStatistics() {
+        final double megabyte = 1024.0 * 1024.0;
+        return String.format("%d memories, %.1f / %.1f MB, of them %d checkpoints, %.1f MB, "
+                        + "%d hits, %d ancestor hits, %d misses, %d evictions",
+                entries.size(), weight / megabyte, capacity / megabyte, checkpoints, checkpointWeight / megabyte,
+                hits, ancestorHits, misses, evictions);
+    }
+
+    /**
+     * @param memory complete memory.
+     * @return estimated size of the object states and bytes of the memory.
+     */
+    static long estimateWeight(PersistentIntMap<ExecutionState.ObjectState> memory) {
+        long[] result = {0};
+        memory.forEach((objID, objectState) -> result[0] += estimateWeight(objectState));
+        return result[0];
+    }
+
+    private static long estimateWeight(ExecutionState.ObjectState objectState) {
+        return OBJECT_STATE_WEIGHT + estimateWeight(objectState.segmentPlane())
+                + estimateWeight(objectState.offsetPlane());
+    }
+
+    private static long estimateWeight(ExecutionState.Plane plane) {
+        if (plane == null) {
+            return 0;
+        }
+        long bytes = plane.concreteStore().additions().size() + plane.concreteMask().additions().size()
+                + plane.knownSymbolics().additions().size();
+        return BYTE_WEIGHT * bytes + UPDATE_WEIGHT * plane.updates().size();
+    }
+}
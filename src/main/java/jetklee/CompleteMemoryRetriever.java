@@ -1,13 +1,34 @@
 package jetklee;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 
 /**
  * Retrieves the complete memory of a node (decompress memory).
  */
 public class CompleteMemoryRetriever {
+    private static final CompleteMemoryCache cache =
+            new CompleteMemoryCache(Settings.COMPLETE_MEMORY_CACHE_SIZE * 1024L * 1024L);
+
+    // index of the loaded tree, null if the objects are not indexed
+    private static volatile ObjectLifetimeIndex lifetimeIndex;
+
+    /**
+     * Finds the last state of an object deleted by the node, which is recorded by the nearest node on the path
+     * from the root that adds or changes the object. Looked up in the object lifetime index of the loaded tree
+     * if there is one, otherwise the memory of the ancestors is searched.
+     *
+     * @param node  node which deletes the object.
+     * @param objID ID of the deleted object.
+     * @return the addition or the change of the object.
+     */
     public static ExecutionState.ObjectState getDeletedObjectState(Node node, int objID) {
+        ObjectLifetimeIndex index = lifetimeIndex;
+        if (index != null) {
+            ExecutionState.ObjectState objectState = index.findLastState(node, objID);
+            if (objectState != null) {
+                return objectState;
+            }
+        }
         Node current = node;
 
         // search for the memory of the deleted object
@@ -27,38 +48,108 @@ public class CompleteMemoryRetriever {
             current = current.getParent();
         }
     }
+    /**
+     * Reconstructs the complete memory of the node by replaying the diffs of its ancestors. The replay starts
+     * from the nearest ancestor whose complete memory is cached, checkpoints are cached along the way every
+     * {@link Settings#MEMORY_CHECKPOINT_INTERVAL} levels of depth. The result is cached.
+     *
+     * @param node the node whose memory is reconstructed.
+     * @return complete memory saved in additions.
+     */
     public static ExecutionState.Memory getCompleteMemory(Node node) {
-        HashMap<Integer, ExecutionState.ObjectState> complete_memory = new HashMap<>();
+        return new ExecutionState.Memory(getCompleteMemoryMap(node).values(), new ArrayList<>(), new ArrayList<>());
+    }
+
+    /**
+     * Reconstructs the complete memory of the node as a persistent map. The map shares the object states and
+     * their bytes with the complete memories of the node's ancestors, so complete memories of many nodes can be
+     * kept at once, e.g. to compare them.
+     *
+     * @param node the node whose memory is reconstructed.
+     * @return object states of the complete memory keyed by the object ID.
+     */
+    public static PersistentIntMap<ExecutionState.ObjectState> getCompleteMemoryMap(Node node) {
+        PersistentIntMap<ExecutionState.ObjectState> cached = cache.get(node.getExecutionState());
+        if (cached != null) {
+            return cached;
+        }
+        PersistentIntMap<ExecutionState.ObjectState> complete_memory = PersistentIntMap.empty();
         ArrayList<Node> nodes = new ArrayList<>();
 
-        nodes.add(node);
-        while (node.getParent() != null) {
-            node = node.getParent();
-            nodes.add(node);
+        // Collect the nodes from the leaf up to the nearest cached ancestor or the root
+        for (Node current = node; current != null; current = current.getParent()) {
+            PersistentIntMap<ExecutionState.ObjectState> ancestor =
+                    current == node ? null : cache.getAncestor(current.getExecutionState());
+            if (ancestor != null) {
+                complete_memory = ancestor;
+                break;
+            }
+            nodes.add(current);
         }
         // The nodes are in order from leaf to root, traverse them in reverse order (from root to leaf)
         for (int i = nodes.size() - 1; i >= 0; i--) {
-            ExecutionState.Memory node_memory = nodes.get(i).getExecutionState().getMemory();
+            ExecutionState es = nodes.get(i).getExecutionState();
+            complete_memory = applyMemory(complete_memory, es.getMemory());
 
-            // Add newly added objects
-            for (ExecutionState.ObjectState addition : node_memory.additions()) {
-                complete_memory.put(addition.objID(), addition);
+            if (i > 0 && isCheckpoint(es)) {
+                cache.putCheckpoint(es, complete_memory);
             }
+        }
 
-            // Apply changes to changed objects
-            for (ExecutionState.ObjectState change : node_memory.changes()) {
-                ExecutionState.ObjectState oldObjectState = complete_memory.get(change.objID());
-                complete_memory.put(change.objID(), mergeObjectState(oldObjectState, change));
-            }
+        cache.put(node.getExecutionState(), complete_memory);
+        return complete_memory;
+    }
 
-            // Remove deleted objects
-            for (ExecutionState.Deletion deletion : node_memory.deletions()) {
-                complete_memory.remove(deletion.objID());
-            }
+    /**
+     * Drops the cached complete memories, called when another tree is loaded.
+     */
+    public static void clearCache() {
+        cache.clear();
+    }
+
+    /**
+     * @param index object lifetime index of the loaded tree or null.
+     */
+    static void setLifetimeIndex(ObjectLifetimeIndex index) {
+        lifetimeIndex = index;
+    }
+
+    public static ObjectLifetimeIndex getLifetimeIndex() {
+        return lifetimeIndex;
+    }
+
+    public static CompleteMemoryCache getCache() {
+        return cache;
+    }
+
+    private static boolean isCheckpoint(ExecutionState es) {
+        int depth = es.getInsertContext().depth();
+        return Settings.MEMORY_CHECKPOINT_INTERVAL > 0 && depth > 0 && depth % Settings.MEMORY_CHECKPOINT_INTERVAL == 0;
+    }
+
+    /**
+     * Applies additions, changes and deletions of one node to the complete memory of its parent.
+     *
+     * @return complete memory of the node.
+     */
+    private static PersistentIntMap<ExecutionState.ObjectState> applyMemory(
+            PersistentIntMap<ExecutionState.ObjectState> complete_memory, ExecutionState.Memory node_memory) {
+        // Add newly added objects
+        for (ExecutionState.ObjectState addition : node_memory.additions()) {
+            complete_memory = complete_memory.put(addition.objID(), addition);
+        }
+
+        // Apply changes to changed objects
+        for (ExecutionState.ObjectState change : node_memory.changes()) {
+            ExecutionState.ObjectState oldObjectState = complete_memory.get(change.objID());
+            complete_memory = complete_memory.put(change.objID(), mergeObjectState(oldObjectState, change));
         }
 
-        // Save the complete memory in additions
-        return new ExecutionState.Memory(new ArrayList<>(complete_memory.values()), new ArrayList<>(), new ArrayList<>());
+        // Remove deleted objects
+        for (ExecutionState.Deletion deletion : node_memory.deletions()) {
+            complete_memory = complete_memory.remove(deletion.objID());
+        }
+        return complete_memory;
     }
 
     private static ExecutionState.ObjectState mergeObjectState(ExecutionState.ObjectState a, ExecutionState.ObjectState b) {
@@ -103,29 +194,12 @@ public class CompleteMemoryRetriever {
     }
 
     public static ExecutionState.Diff mergeDiff(ExecutionState.Diff a, ExecutionState.Diff b) {
-        ExecutionState.ByteMap mergedByteMap = new ExecutionState.ByteMap();
-
-        // Copy all entries from 'a' into 'mergedByteMap'
-        a.additions().forEach((key, indices) -> {
-            mergedByteMap.put(key, new ArrayList<>(indices));
-        });
-
-        // Delete all entries from 'b's deletions
-        b.deletions().forEach((key, indices) -> {
-            mergedByteMap.get(key).removeAll(indices);
-        });
-
-        // Remove all empty entries from 'mergedByteMap'
-        mergedByteMap.entrySet().removeIf(entry -> entry.getValue().isEmpty());
-
-        // Iterate over each addition in 'b' and merge it into 'mergedByteMap'
-        b.additions().forEach((key, indices) -> {
-            // If the key exists in 'mergedByteMap', merge the indices by adding all elements of 'indices' to 'mergedByteMap'
-            mergedByteMap.merge(key, indices, (v1, v2) -> {
-                v1.addAll(v2);
-                return v1;
-            });
-        });
+        // Copy all bytes from 'a' into 'mergedByteMap', the copy shares the bytes until they are modified
+        ExecutionState.ByteMap mergedByteMap = new ExecutionState.ByteMap(a.additions());
+
+        // Delete all bytes from 'b's deletions, then add all bytes from 'b's additions,
+        // they replace the previous values of the bytes
+        mergedByteMap.applyDiff(b.deletions(), b.additions());
 
         return new ExecutionState.Diff(
                 mergedByteMap,
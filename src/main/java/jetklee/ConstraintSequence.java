@@ -0,0 +1,101 @@
+package jetklee;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable sequence of path constraints which shares its beginning with another sequence. A node keeps only
+ * the constraints it adds to a prefix of its parent's sequence, so the constraints of a whole path are stored once.
+ * The elements are read through the chain of prefixes, nothing is copied until the sequence is iterated.
+ */
+public class ConstraintSequence extends AbstractList<String> {
+    private static final ConstraintSequence EMPTY = new ConstraintSequence(null, 0, new String[0]);
+    private final ConstraintSequence prefix;
+    private final int prefixLength;
+    private final String[] own;
+    private final int size;
+
+    /**
+     * @param prefix       sequence whose beginning is shared, null if nothing is shared.
+     * @param prefixLength number of shared constraints of the prefix.
+     * @param own          constraints following the shared ones.
+     */
+    private ConstraintSequence(ConstraintSequence prefix, int prefixLength, String[] own) {
+        this.prefix = prefix;
+        this.prefixLength = prefixLength;
+        this.own = own;
+        this.size = prefixLength + own.length;
+    }
+
+    /**
+     * @param constraints constraints of the sequence.
+     * @return sequence which shares nothing.
+     */
+    public static ConstraintSequence of(List<String> constraints) {
+        if (constraints.isEmpty()) {
+            return EMPTY;
+        }
+        return new ConstraintSequence(null, 0, constraints.toArray(new String[0]));
+    }
+
+    /**
+     * Creates an equal sequence which shares the common beginning with the given one.
+     *
+     * @param parent sequence of the parent node.
+     * @return sequence sharing the parent's constraints, or this sequence if there is nothing to share.
+     */
+    public ConstraintSequence shareWith(ConstraintSequence parent) {
+        if (prefix == parent || parent == null || parent.isEmpty()) {
+            return this;
+        }
+        String[] constraints = toArray();
+        String[] parentConstraints = parent.toArray();
+        int common = 0;
+        int limit = Math.min(constraints.length, parentConstraints.length);
+        while (common < limit && Objects.equals(constraints[common], parentConstraints[common])) {
+            ++common;
+        }
+        if (common == 0 || common < prefixLength) {
+            // the current prefix shares more
+            return this;
+        }
+        return new ConstraintSequence(parent, common, Arrays.copyOfRange(constraints, common, constraints.length));
+    }
+
+    @Override
+    public String get(int index) {
+        Objects.checkIndex(index, size);
+        ConstraintSequence sequence = this;
+        while (index < sequence.prefixLength) {
+            sequence = sequence.prefix;
+        }
+        return sequence.own[index - sequence.prefixLength];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String[] toArray() {
+        String[] result = new String[size];
+        int end = size;
+        for (ConstraintSequence sequence = this; end > 0; sequence = sequence.prefix) {
+            int ownCount = end - sequence.prefixLength;
+            if (ownCount > 0) {
+                System.arraycopy(sequence.own, 0, result, sequence.prefixLength, ownCount);
+                end = sequence.prefixLength;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return Arrays.asList(toArray()).iterator();
+    }
+}
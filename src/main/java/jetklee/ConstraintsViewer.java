@@ -3,6 +3,7 @@ package jetklee;
 import javax.swing.*;
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.List;
 
 import static jetklee.Styles.INFO_FONT;
 import static jetklee.Styles.INFO_FONT_SIZE;
@@ -13,7 +14,9 @@ import static jetklee.Styles.INFO_FONT_SIZE;
  */
 public class ConstraintsViewer extends TextViewerBase {
     private boolean showOriginal;
-    private ArrayList<String> constraints;
+    private List<String> constraints;
+    // formatting is slow, so the formatted constraints are kept for switching the view back
+    private String formattedHtml;
     private JButton toggleButton;
     private JEditorPane editorPane;
     private static final String ORIGINAL_STRING = "Show Original";
@@ -23,6 +26,7 @@ public class ConstraintsViewer extends TextViewerBase {
         super();
 
         constraints = new ArrayList<>();
+        formattedHtml = null;
         showOriginal = false;
 
         editorPane = new JEditorPane();
@@ -42,8 +46,30 @@ public class ConstraintsViewer extends TextViewerBase {
      *
      * @param constraints to display.
      */
-    public void displayConstraints(ArrayList<String> constraints) {
+    public void displayConstraints(List<String> constraints) {
+        displayConstraints(constraints, null);
+    }
+
+    /**
+     * Displays constraints (original or formatted) in the panel.
+     *
+     * @param constraints   to display.
+     * @param formattedHtml formatted constraints prepared by {@link #createHtml(List, boolean)} or null.
+     */
+    public void displayConstraints(List<String> constraints, String formattedHtml) {
         this.constraints = constraints;
+        this.formattedHtml = formattedHtml;
+        showConstraints();
+    }
+
+    /**
+     * Formats constraints. Does not touch the panel, so it can be called from any thread.
+     *
+     * @param constraints  to format.
+     * @param showOriginal true to keep the constraints as they are recorded.
+     * @return html with the constraints.
+     */
+    public static String createHtml(List<String> constraints, boolean showOriginal) {
         StringBuilder constraintsStr = new StringBuilder();
 
         for (String constraint : constraints) {
@@ -54,13 +80,26 @@ public class ConstraintsViewer extends TextViewerBase {
             }
         }
 
-        editorPane.setText("<html><body style='font-family:" + INFO_FONT + "; font-size:" + INFO_FONT_SIZE + ";padding:5px;'>" + constraintsStr + "</body></html>");
+        return "<html><body style='font-family:" + INFO_FONT + "; font-size:" + INFO_FONT_SIZE + ";padding:5px;'>" + constraintsStr + "</body></html>";
+    }
+
+    private void showConstraints() {
+        String html;
+        if (showOriginal) {
+            html = createHtml(constraints, true);
+        } else {
+            if (formattedHtml == null) {
+                formattedHtml = createHtml(constraints, false);
+            }
+            html = formattedHtml;
+        }
+        editorPane.setText(html);
         editorPane.setCaretPosition(0);
     }
 
     private void toggleView() {
         showOriginal = !showOriginal;
         toggleButton.setText(showOriginal ? FORMATTED_STRING : ORIGINAL_STRING);
-        displayConstraints(constraints);
+        showConstraints();
     }
 }
\ No newline at end of file
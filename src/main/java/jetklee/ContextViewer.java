@@ -22,11 +22,29 @@ public class ContextViewer extends TextViewerBase {
      * @param info to display.
      */
     public void displayContext(ExecutionState.Context context) {
+        displayContextHtml(createHtml(context));
+    }
+
+    /**
+     * Displays context prepared by {@link #createHtml(ExecutionState.Context)} in the Context panel.
+     *
+     * @param html to display.
+     */
+    public void displayContextHtml(String html) {
+        displayInEditorPane(html);
+    }
+
+    /**
+     * Formats context of an execution state. Does not touch the panel, so it can be called from any thread.
+     *
+     * @param context to format.
+     * @return html with the context or an empty string if there is no context.
+     */
+    public static String createHtml(ExecutionState.Context context) {
         if (context == null) {
-            displayInEditorPane("");
-            return;
+            return "";
         }
-        String html = "<html><body style='font-family:" + INFO_FONT + "; font-size:" + INFO_FONT_SIZE +
+        return "<html><body style='font-family:" + INFO_FONT + "; font-size:" + INFO_FONT_SIZE +
                 ";padding:5px;'>" +
                 createNodeInfoRow(context) +
                 createStateInfoRow(context) +
@@ -34,11 +52,9 @@ public class ContextViewer extends TextViewerBase {
                 createLocationRow("lastLocation", context.lastLocation()) +
                 createStackRow(context.insertContext().stack()) +
                 "</body></html>";
-
-        displayInEditorPane(html);
     }
 
-    private String createNodeInfoRow(ExecutionState.Context context) {
+    private static String createNodeInfoRow(ExecutionState.Context context) {
         StringBuilder row = new StringBuilder();
         row.append("<b style='color:" + KEY_COLOR + ";'>nodeId: </b>").append(context.insertContext().nodeID()).append("<br>");
 
@@ -49,7 +65,7 @@ public class ContextViewer extends TextViewerBase {
         return row.toString();
     }
 
-    private String createStateInfoRow(ExecutionState.Context context) {
+    private static String createStateInfoRow(ExecutionState.Context context) {
         StringBuilder row = new StringBuilder();
         appendKeyValueInlineNonBold(row, "uniqueState", context.insertContext().uniqueState());
         appendKeyValueInlineNonBold(row, "coveredNew", context.coveredNew());
@@ -60,7 +76,7 @@ public class ContextViewer extends TextViewerBase {
         return row.toString();
     }
 
-    private String createLocationRow(String label, ExecutionState.Location location) {
+    private static String createLocationRow(String label, ExecutionState.Location location) {
         return "<div><b><span style='color:" + KEY_COLOR + ";'>" + label + ":</span></b><br>" +
                 "&nbsp;&nbsp;- <span style='color:" + KEY_COLOR + ";'>file:</span>" + location.file() + "<br>" +
                 "&nbsp;&nbsp;- <span style='color:" + KEY_COLOR + ";'>line:</span>" + location.line() + "<br>" +
@@ -69,7 +85,7 @@ public class ContextViewer extends TextViewerBase {
                 "</div><br>";
     }
 
-    private String createStackRow(ArrayList<ExecutionState.Location> stack) {
+    private static String createStackRow(ArrayList<ExecutionState.Location> stack) {
         StringBuilder stackBuilder = new StringBuilder();
         stackBuilder.append("<div><b><span style='color:").append(KEY_COLOR).append(";'>stack:</span></b><br>");
 
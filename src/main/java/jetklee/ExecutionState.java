@@ -4,7 +4,8 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -23,7 +24,392 @@ public class ExecutionState {
                               boolean readOnly, AllocSite allocSite, Plane segmentPlane, Plane offsetPlane) {
     }
 
-    public static class ByteMap extends HashMap<String, ArrayList<Integer>> {
+    /**
+     * Values of the bytes of a plane keyed by the byte index. The bytes are grouped in chunks of 64 consecutive
+     * indices kept in a {@link PersistentIntMap}. Concrete values 0-255 are kept densely in a byte array of the chunk
+     * together with a bit mask of the defined indices, other values (symbolic expressions) are kept in an array of
+     * the chunk. Copies of a map share the chunks, a chunk is copied only when one of the maps modifies it, so a map
+     * derived from another one by a few changes costs only the changed chunks. Every index has at most one value.
+     */
+    public static class ByteMap {
+        /**
+         * Receives entries of the map in ascending order of the indices.
+         */
+        public interface ByteConsumer {
+            void accept(int index, String value);
+        }
+
+        private static final String[] BYTE_VALUES = new String[256];
+        private static final int CHUNK_BITS = 6;
+        private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+        static {
+            for (int i = 0; i < BYTE_VALUES.length; ++i) {
+                BYTE_VALUES[i] = Integer.toString(i);
+            }
+        }
+
+        /**
+         * Bytes of 64 consecutive indices. A chunk can be modified only by the map which owns it.
+         */
+        private static final class Chunk {
+            private final Object owner;
+            private long denseDefined;
+            private long symbolicDefined;
+            private byte[] denseValues;
+            private String[] symbolicValues;
+
+            private Chunk(Object owner) {
+                this.owner = owner;
+            }
+
+            private Chunk(Chunk other, Object owner) {
+                this.owner = owner;
+                denseDefined = other.denseDefined;
+                symbolicDefined = other.symbolicDefined;
+                denseValues = other.denseValues == null ? null : other.denseValues.clone();
+                symbolicValues = other.symbolicValues == null ? null : other.symbolicValues.clone();
+            }
+
+            private String get(int offset) {
+                long bit = 1L << offset;
+                if ((denseDefined & bit) != 0) {
+                    return BYTE_VALUES[denseValues[offset] & 0xFF];
+                }
+                return (symbolicDefined & bit) != 0 ? symbolicValues[offset] : null;
+            }
+
+            /**
+             * @return change of the number of bytes in the chunk.
+             */
+            private int put(int offset, String value) {
+                long bit = 1L << offset;
+                int added = ((denseDefined | symbolicDefined) & bit) == 0 ? 1 : 0;
+                int byteValue = parseByteValue(value);
+                if (byteValue >= 0) {
+                    if (denseValues == null) {
+                        denseValues = new byte[CHUNK_SIZE];
+                    }
+                    denseValues[offset] = (byte) byteValue;
+                    denseDefined |= bit;
+                    removeSymbolic(offset);
+                } else {
+                    if (symbolicValues == null) {
+                        symbolicValues = new String[CHUNK_SIZE];
+                    }
+                    symbolicValues[offset] = value;
+                    symbolicDefined |= bit;
+                    denseDefined &= ~bit;
+                }
+                return added;
+            }
+
+            private void remove(int offset) {
+                denseDefined &= ~(1L << offset);
+                removeSymbolic(offset);
+            }
+
+            private void removeSymbolic(int offset) {
+                if ((symbolicDefined & (1L << offset)) != 0) {
+                    symbolicDefined &= ~(1L << offset);
+                    symbolicValues[offset] = null;
+                }
+            }
+
+            /**
+             * Removes the bytes which have the same values in the other chunk.
+             *
+             * @return number of removed bytes.
+             */
+            private int removeMatching(Chunk deletions) {
+                long removedDense = denseDefined & deletions.denseDefined;
+                for (long bits = removedDense; bits != 0; bits &= bits - 1) {
+                    int offset = Long.numberOfTrailingZeros(bits);
+                    if (denseValues[offset] != deletions.denseValues[offset]) {
+                        removedDense &= ~(1L << offset);
+                    }
+                }
+                long removedSymbolic = symbolicDefined & deletions.symbolicDefined;
+                for (long bits = removedSymbolic; bits != 0; bits &= bits - 1) {
+                    int offset = Long.numberOfTrailingZeros(bits);
+                    if (symbolicValues[offset].equals(deletions.symbolicValues[offset])) {
+                        symbolicValues[offset] = null;
+                    } else {
+                        removedSymbolic &= ~(1L << offset);
+                    }
+                }
+                denseDefined &= ~removedDense;
+                symbolicDefined &= ~removedSymbolic;
+                return Long.bitCount(removedDense) + Long.bitCount(removedSymbolic);
+            }
+
+            /**
+             * Puts all bytes of the other chunk, they replace the previous values of the bytes.
+             *
+             * @return change of the number of bytes in the chunk.
+             */
+            private int putAll(Chunk additions) {
+                int previousSize = size();
+                if (additions.denseDefined != 0) {
+                    if (denseValues == null) {
+                        denseValues = new byte[CHUNK_SIZE];
+                    }
+                    for (long bits = additions.denseDefined; bits != 0; bits &= bits - 1) {
+                        int offset = Long.numberOfTrailingZeros(bits);
+                        denseValues[offset] = additions.denseValues[offset];
+                    }
+                    for (long bits = symbolicDefined & additions.denseDefined; bits != 0; bits &= bits - 1) {
+                        symbolicValues[Long.numberOfTrailingZeros(bits)] = null;
+                    }
+                    denseDefined |= additions.denseDefined;
+                    symbolicDefined &= ~additions.denseDefined;
+                }
+                if (additions.symbolicDefined != 0) {
+                    if (symbolicValues == null) {
+                        symbolicValues = new String[CHUNK_SIZE];
+                    }
+                    for (long bits = additions.symbolicDefined; bits != 0; bits &= bits - 1) {
+                        int offset = Long.numberOfTrailingZeros(bits);
+                        symbolicValues[offset] = additions.symbolicValues[offset];
+                    }
+                    symbolicDefined |= additions.symbolicDefined;
+                    denseDefined &= ~additions.symbolicDefined;
+                }
+                return size() - previousSize;
+            }
+
+            private long defined() {
+                return denseDefined | symbolicDefined;
+            }
+
+            private int size() {
+                return Long.bitCount(denseDefined) + Long.bitCount(symbolicDefined);
+            }
+
+            private void forEach(int firstIndex, ByteConsumer consumer) {
+                for (long defined = denseDefined | symbolicDefined; defined != 0; defined &= defined - 1) {
+                    int offset = Long.numberOfTrailingZeros(defined);
+                    consumer.accept(firstIndex + offset, get(offset));
+                }
+            }
+
+            private boolean hasSameBytes(Chunk other) {
+                if (denseDefined != other.denseDefined || symbolicDefined != other.symbolicDefined) {
+                    return false;
+                }
+                for (long defined = denseDefined | symbolicDefined; defined != 0; defined &= defined - 1) {
+                    int offset = Long.numberOfTrailingZeros(defined);
+                    if (!get(offset).equals(other.get(offset))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+
+        private PersistentIntMap<Chunk> chunks;
+        private int size;
+        // chunks created by this map are modified in place, other chunks are copied first
+        private Object owner;
+
+        public ByteMap() {
+            chunks = PersistentIntMap.empty();
+            size = 0;
+            owner = new Object();
+        }
+
+        /**
+         * Creates a copy which shares the chunks with the other map. Later modifications of either of the maps
+         * copy the chunks they modify.
+         *
+         * @param other map whose entries are copied.
+         */
+        public ByteMap(ByteMap other) {
+            chunks = other.chunks;
+            size = other.size;
+            owner = new Object();
+            other.owner = new Object();
+        }
+
+        /**
+         * @param value   value of the bytes.
+         * @param indices indices of the bytes which have the value.
+         */
+        public void put(String value, Collection<Integer> indices) {
+            for (int index : indices) {
+                put(index, value);
+            }
+        }
+
+        /**
+         * Sets value of the byte, a previous value of the byte is replaced.
+         *
+         * @param index index of the byte.
+         * @param value value of the byte.
+         */
+        public void put(int index, String value) {
+            int key = index >>> CHUNK_BITS;
+            Chunk chunk = chunks.get(key);
+            if (chunk == null) {
+                chunk = new Chunk(owner);
+                chunks = chunks.put(key, chunk);
+            } else {
+                chunk = ownChunk(key, chunk);
+            }
+            size += chunk.put(index & (CHUNK_SIZE - 1), value);
+        }
+
+        /**
+         * @param index index of the byte.
+         * @return value of the byte or null if the map does not contain the byte.
+         */
+        public String get(int index) {
+            Chunk chunk = chunks.get(index >>> CHUNK_BITS);
+            return chunk == null ? null : chunk.get(index & (CHUNK_SIZE - 1));
+        }
+
+        /**
+         * Removes the byte only if it has the given value.
+         *
+         * @param index index of the byte.
+         * @param value expected value of the byte.
+         */
+        public void remove(int index, String value) {
+            if (!value.equals(get(index))) {
+                return;
+            }
+            int key = index >>> CHUNK_BITS;
+            Chunk chunk = chunks.get(key);
+            if (chunk.size() == 1) {
+                chunks = chunks.remove(key);
+            } else {
+                ownChunk(key, chunk).remove(index & (CHUNK_SIZE - 1));
+            }
+            --size;
+        }
+
+        /**
+         * Removes the bytes of the deletions which have the given values and then puts the bytes of the additions.
+         * Works on whole chunks with bit masks, so the cost is linear in the number of bytes of the diff, and
+         * chunks of the additions which replace whole chunks of this map are shared instead of copied.
+         *
+         * @param deletions bytes to remove if they have the same value in this map.
+         * @param additions bytes to put, they replace the previous values of the bytes.
+         */
+        public void applyDiff(ByteMap deletions, ByteMap additions) {
+            deletions.chunks.forEach((key, deleted) -> {
+                Chunk chunk = chunks.get(key);
+                if (chunk == null || (chunk.defined() & deleted.defined()) == 0) {
+                    return;
+                }
+                chunk = ownChunk(key, chunk);
+                size -= chunk.removeMatching(deleted);
+                if (chunk.defined() == 0) {
+                    chunks = chunks.remove(key);
+                }
+            });
+
+            // the chunks of the additions may be shared from now on
+            additions.owner = new Object();
+            additions.chunks.forEach((key, added) -> {
+                Chunk chunk = chunks.get(key);
+                if (chunk == null || (chunk.defined() & ~added.defined()) == 0) {
+                    size += added.size() - (chunk == null ? 0 : chunk.size());
+                    chunks = chunks.put(key, added);
+                } else {
+                    size += ownChunk(key, chunk).putAll(added);
+                }
+            });
+        }
+
+        /**
+         * @return number of bytes in the map.
+         */
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Passes all bytes to the consumer in ascending order of their indices.
+         *
+         * @param consumer receives the bytes.
+         */
+        public void forEach(ByteConsumer consumer) {
+            chunks.forEach((key, chunk) -> chunk.forEach(key << CHUNK_BITS, consumer));
+        }
+
+        /**
+         * @return the chunk itself if it is owned by this map, otherwise its copy which replaces it in the map.
+         */
+        private Chunk ownChunk(int key, Chunk chunk) {
+            if (chunk.owner == owner) {
+                return chunk;
+            }
+            Chunk copy = new Chunk(chunk, owner);
+            chunks = chunks.put(key, copy);
+            return copy;
+        }
+
+        /**
+         * @param value value of a byte.
+         * @return the value as a number if it is a decimal number 0-255 without leading zeros, otherwise -1.
+         */
+        private static int parseByteValue(String value) {
+            int length = value.length();
+            if (length == 0 || length > 3 || (length > 1 && value.charAt(0) == '0')) {
+                return -1;
+            }
+            int result = 0;
+            for (int i = 0; i < length; ++i) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9') {
+                    return -1;
+                }
+                result = result * 10 + (c - '0');
+            }
+            return result <= 255 ? result : -1;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ByteMap other) || size != other.size || chunks.size() != other.chunks.size()) {
+                return false;
+            }
+            boolean[] equal = {true};
+            chunks.forEach((key, chunk) -> {
+                if (equal[0]) {
+                    Chunk otherChunk = other.chunks.get(key);
+                    equal[0] = otherChunk != null && chunk.hasSameBytes(otherChunk);
+                }
+            });
+            return equal[0];
+        }
+
+        @Override
+        public int hashCode() {
+            int[] hash = {1};
+            forEach((index, value) -> hash[0] = 31 * (31 * hash[0] + index) + value.hashCode());
+            return hash[0];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder("{");
+            forEach((index, value) -> {
+                if (builder.length() > 1) {
+                    builder.append(", ");
+                }
+                builder.append(index).append('=').append(value);
+            });
+            return builder.append('}').toString();
+        }
     }
 
     public record AllocSite(String scope, String name, String code) {
@@ -65,29 +451,130 @@ public class ExecutionState {
     public record InsertContext(int nodeID, int stateID, boolean uniqueState, Location firstLocation, int depth,
                                 ArrayList<Location> stack){}
 
-    private Context context;
+    public record NodeInfo(Memory memory, ConstraintSequence constraints, Context context) {
+        /**
+         * @param parent information of the parent node or null.
+         * @return equal information whose constraints share the constraints of the parent.
+         */
+        NodeInfo shareConstraints(NodeInfo parent) {
+            if (parent == null || constraints == null) {
+                return this;
+            }
+            ConstraintSequence shared = constraints.shareWith(parent.constraints());
+            return shared == constraints ? this : new NodeInfo(memory, shared, context);
+        }
+    }
+
+    /**
+     * Parses information about the node on demand.
+     */
+    public interface NodeInfoSource {
+        /**
+         * @param es execution state whose information is parsed.
+         * @return parsed information or null if it can't be loaded.
+         */
+        NodeInfo load(ExecutionState es);
+    }
+
     private InsertContext insertContext;
-    private Memory memory;
-    private ArrayList<String> constraints;
+    // set by the loading thread while the tree is already displayed
+    private volatile NodeInfo nodeInfo;
+    private volatile NodeInfoSource nodeInfoSource;
+    private NodeInfoCache nodeInfoCache;
 
     private int id;
 
     /**
      * @param treeData information about one execution state
+     * @param pool     pool of the strings of the tree
      */
-    public ExecutionState(JSONObject treeData, int id) {
+    public ExecutionState(JSONObject treeData, int id, StringPool pool) {
         this.id = id;
-        this.insertContext = parseContextInsert(treeData);
+        this.insertContext = parseContextInsert(treeData, pool);
     }
 
-    public void setNodeInfoData(JSONObject nodeInfoData, int parentID) {
-        this.memory = parseMemory(nodeInfoData);
-        this.constraints = parseConstraints(nodeInfoData);
-        this.context = parseContext(nodeInfoData, parentID);
+    /**
+     * @param insertContext already parsed information about one execution state
+     */
+    public ExecutionState(InsertContext insertContext, int id) {
+        this.id = id;
+        this.insertContext = insertContext;
     }
 
-    private Context parseContext(JSONObject memoryData, int parentID) {
-        Location lastLocation = parseLocation(memoryData, "lastLocation");
+    /**
+     * Parses memory, constraints and context of the execution state without storing them.
+     * Does not modify the execution state, so it is safe to call from multiple threads.
+     *
+     * @param nodeInfoData information about the node stored in the memory file.
+     * @param parentID     id of the parent node or -1.
+     * @param pool         pool of the strings of the tree.
+     * @return parsed information.
+     */
+    public NodeInfo parseNodeInfoData(JSONObject nodeInfoData, int parentID, StringPool pool) {
+        return new NodeInfo(
+                parseMemory(nodeInfoData, pool),
+                parseConstraints(nodeInfoData, pool),
+                parseContext(nodeInfoData, parentID, pool)
+        );
+    }
+
+    public void setNodeInfo(NodeInfo info) {
+        this.nodeInfo = info;
+        this.nodeInfoSource = null;
+    }
+
+    /**
+     * Postpones parsing of the node information until it is accessed for the first time.
+     *
+     * @param source source to parse the information from.
+     * @param cache  cache which keeps the parsed information.
+     */
+    public void setNodeInfoSource(NodeInfoSource source, NodeInfoCache cache) {
+        this.nodeInfoCache = cache;
+        this.nodeInfo = null;
+        this.nodeInfoSource = source;
+    }
+
+    /**
+     * @return true if information about the node is available, either parsed or to be parsed on demand.
+     */
+    public boolean hasNodeInfo() {
+        return nodeInfo != null || nodeInfoSource != null;
+    }
+
+    /**
+     * @return node information if it is already parsed, the lazy source is not consulted.
+     */
+    NodeInfo getLoadedNodeInfo() {
+        return nodeInfo;
+    }
+
+    /**
+     * @return node information if it is already parsed or cached, the lazy source is not consulted.
+     */
+    NodeInfo getCachedNodeInfo() {
+        NodeInfo info = nodeInfo;
+        if (info != null || nodeInfoCache == null) {
+            return info;
+        }
+        return nodeInfoCache.peek(this);
+    }
+
+    NodeInfoSource getNodeInfoSource() {
+        return nodeInfoSource;
+    }
+
+    private NodeInfo getNodeInfo() {
+        NodeInfo info = nodeInfo;
+        NodeInfoSource source = nodeInfoSource;
+        if (info != null || source == null) {
+            return info;
+        }
+        return nodeInfoCache.get(this, source);
+    }
+
+    private Context parseContext(JSONObject memoryData, int parentID, StringPool pool) {
+        Location lastLocation = parseLocation(memoryData, "lastLocation", pool);
         return new Context(
                 insertContext,
                 parentID,
@@ -100,14 +587,14 @@ public class ExecutionState {
         );
     }
 
-    private InsertContext parseContextInsert(JSONObject treeData) {
-        Location firstLocation = parseLocation(treeData, "firstLocation");
+    private InsertContext parseContextInsert(JSONObject treeData, StringPool pool) {
+        Location firstLocation = parseLocation(treeData, "firstLocation", pool);
         JSONArray stackJSON = treeData.getJSONArray("stack");
         ArrayList<Location> stack = new ArrayList<>();
         for (int i = 0; i < stackJSON.length(); i++) {
             JSONArray stackLocationJSON = stackJSON.getJSONArray(i);
             Location stackLocation = new Location(
-                    stackLocationJSON.getString(0),
+                    pool.intern(stackLocationJSON.getString(0)),
                     stackLocationJSON.getInt(1),
                     stackLocationJSON.getInt(2),
                     stackLocationJSON.getInt(3)
@@ -125,17 +612,17 @@ public class ExecutionState {
         );
     }
 
-    private Location parseLocation(JSONObject data, String location) {
+    private Location parseLocation(JSONObject data, String location, StringPool pool) {
         JSONArray locationJSON = data.getJSONArray(location);
         return new Location(
-                locationJSON.getString(0),
+                pool.intern(locationJSON.getString(0)),
                 locationJSON.getInt(1),
                 locationJSON.getInt(2),
                 locationJSON.getInt(3)
         );
     }
 
-    private Memory parseMemory(JSONObject data) {
+    private Memory parseMemory(JSONObject data, StringPool pool) {
         ArrayList<ObjectState> additions = new ArrayList<>();
         ArrayList<ObjectState> changes = new ArrayList<>();
         ArrayList<Deletion> deletions = new ArrayList<>();
@@ -145,11 +632,11 @@ public class ExecutionState {
         JSONObject objectsJSON = data.getJSONObject("objects");
         if (objectsJSON.has("added")) {
             JSONArray additionsJSON = objectsJSON.getJSONArray("added");
-            additions = parseObjectStates(additionsJSON, OperationType.ADDITION);
+            additions = parseObjectStates(additionsJSON, OperationType.ADDITION, pool);
         }
         if (objectsJSON.has("changed")) {
             JSONArray changesJSON = objectsJSON.getJSONArray("changed");
-            changes = parseObjectStates(changesJSON, OperationType.CHANGE);
+            changes = parseObjectStates(changesJSON, OperationType.CHANGE, pool);
         }
         if (objectsJSON.has("deleted")) {
             JSONArray deletionsJSON = objectsJSON.getJSONArray("deleted");
@@ -161,7 +648,8 @@ public class ExecutionState {
         return new Memory(additions, changes, deletions);
     }
 
-    private ArrayList<ObjectState> parseObjectStates(JSONArray objectStatesJSON, OperationType type) {
+    private ArrayList<ObjectState> parseObjectStates(JSONArray objectStatesJSON, OperationType type,
+                                                     StringPool pool) {
         ArrayList<ObjectState> objectStates = new ArrayList<>();
 
         for (int i = 0; i < objectStatesJSON.length(); i++) {
@@ -172,9 +660,9 @@ public class ExecutionState {
                 JSONObject allocSiteJSON = objectStateJSON.getJSONObject("allocSite");
                 
                 allocSite = new AllocSite(
-                        allocSiteJSON.has("scope") ? allocSiteJSON.getString("scope") : "",
-                        allocSiteJSON.has("name") ? allocSiteJSON.getString("name") : "",
-                        allocSiteJSON.has("code") ? allocSiteJSON.getString("code") : ""
+                        allocSiteJSON.has("scope") ? pool.intern(allocSiteJSON.getString("scope")) : "",
+                        allocSiteJSON.has("name") ? pool.intern(allocSiteJSON.getString("name")) : "",
+                        allocSiteJSON.has("code") ? pool.intern(allocSiteJSON.getString("code")) : ""
                 );
             }
 
@@ -183,8 +671,8 @@ public class ExecutionState {
                     objID,
                     type,
                     objectStateJSON.getInt("segment"),
-                    objectStateJSON.getString("name"),
-                    objectStateJSON.getString("size"),
+                    pool.intern(objectStateJSON.getString("name")),
+                    pool.intern(objectStateJSON.getString("size")),
                     objectStateJSON.getInt("isLocal") == 1,
                     objectStateJSON.getInt("isFixed") == 1,
                     objectStateJSON.getInt("isUserSpec") == 1,
@@ -192,48 +680,45 @@ public class ExecutionState {
                     objectStateJSON.getInt("copyOnWriteOwner"),
                     objectStateJSON.getInt("readOnly") == 1,
                     allocSite,
-                    parsePlane(objectStateJSON, Plane.PlaneType.SEGMENT, objID),
-                    parsePlane(objectStateJSON, Plane.PlaneType.OFFSET, objID)
+                    parsePlane(objectStateJSON, Plane.PlaneType.SEGMENT, objID, pool),
+                    parsePlane(objectStateJSON, Plane.PlaneType.OFFSET, objID, pool)
             );
             objectStates.add(objectState);
         }
         return objectStates;
     }
 
-    private ByteMap parseByte(JSONArray bytesJSON, boolean isAddition) {
+    private ByteMap parseByte(JSONArray bytesJSON, boolean isAddition, StringPool pool) {
         ByteMap byteMap = new ByteMap();
 
         for (int i = 0; i < bytesJSON.length(); ++i) {
             JSONObject byteObject = bytesJSON.getJSONObject(i);
-            String value = byteObject.keys().next();
+            String value = pool.intern(byteObject.keys().next());
             JSONArray indicesJSON = byteObject.getJSONArray(value);
-            ArrayList<Integer> indices = new ArrayList<>();
 
             for (int j = 0; j < indicesJSON.length(); ++j) {
-                indices.add(indicesJSON.getInt(j));
+                byteMap.put(indicesJSON.getInt(j), value);
             }
-
-            byteMap.put(value, indices);
         }
         return byteMap;
     }
 
-    private Diff parseBytes(JSONObject bytes) {
+    private Diff parseBytes(JSONObject bytes, StringPool pool) {
         ByteMap additions = new ByteMap();
         ByteMap deletions = new ByteMap();
 
         if (bytes.has("add")) {
             JSONArray additionsJSON = bytes.getJSONArray("add");
-            additions = parseByte(additionsJSON, true);
+            additions = parseByte(additionsJSON, true, pool);
         }
         if (bytes.has("del")) {
             JSONArray additionsJSON = bytes.getJSONArray("del");
-            deletions = parseByte(additionsJSON, false);
+            deletions = parseByte(additionsJSON, false, pool);
         }
         return new Diff(additions, deletions);
     }
 
-    private Plane parsePlane(JSONObject data, Plane.PlaneType type, int objID) {
+    private Plane parsePlane(JSONObject data, Plane.PlaneType type, int objID, StringPool pool) {
         JSONObject planeJSON = data.getJSONObject(Plane.PlaneType.toString(type));
         if (planeJSON.isEmpty()) return null;
 
@@ -244,17 +729,17 @@ public class ExecutionState {
 
         if (planeJSON.has("concreteStore")) {
             JSONObject bytesJSON = planeJSON.getJSONObject("concreteStore");
-            concreteStore = parseBytes(bytesJSON);
+            concreteStore = parseBytes(bytesJSON, pool);
         }
 
         if (planeJSON.has("concreteMask")) {
             JSONObject bytesJSON = planeJSON.getJSONObject("concreteMask");
-            concreteMask = parseBytes(bytesJSON);
+            concreteMask = parseBytes(bytesJSON, pool);
         }
 
         if (planeJSON.has("knownSymbolics")) {
             JSONObject bytesJSON = planeJSON.getJSONObject("knownSymbolics");
-            knownSymbolics = parseBytes(bytesJSON);
+            knownSymbolics = parseBytes(bytesJSON, pool);
         }
 
         Updates updates = new Updates();
@@ -271,7 +756,7 @@ public class ExecutionState {
         return new Plane(
                 type,
                 objID,
-                planeJSON.getString("rootObject"),
+                pool.intern(planeJSON.getString("rootObject")),
                 planeJSON.getInt("sizeBound"),
                 planeJSON.getInt("initialized") == 1,
                 planeJSON.getInt("symbolic") == 1,
@@ -283,27 +768,39 @@ public class ExecutionState {
         );
     }
 
-    private ArrayList<String> parseConstraints(JSONObject data) {
+    private ConstraintSequence parseConstraints(JSONObject data, StringPool pool) {
         ArrayList<String> constraints = new ArrayList<>();
         JSONArray constraintsJSON = data.getJSONArray("constraints");
 
         for (int i = 0; i < constraintsJSON.length(); i++) {
-            constraints.add(constraintsJSON.get(i).toString());
+            // the same constraints repeat in every node below the node which added them
+            constraints.add(pool.intern(constraintsJSON.get(i).toString()));
         }
-        return constraints;
+        return ConstraintSequence.of(constraints);
     }
-    public ArrayList<String> getConstraints() {
-        return constraints;
+
+    /**
+     * @return constraints of the path to the node, a view which shares the constraints with the parent node.
+     */
+    public List<String> getConstraints() {
+        NodeInfo info = getNodeInfo();
+        return info == null ? null : info.constraints();
     }
 
     public Memory getMemory() {
-        return memory;
+        NodeInfo info = getNodeInfo();
+        return info == null ? null : info.memory();
     }
 
     public int getId() {
         return id;
     }
+
+    public InsertContext getInsertContext() {
+        return insertContext;
+    }
     public Context getContext() {
-        return context;
+        NodeInfo info = getNodeInfo();
+        return info == null ? null : info.context();
     }
 }
@@ -0,0 +1,145 @@
+package jetklee;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+
+/**
+ * Pull parser over a json file. Decodes one element of a top-level array at a time, so only the element being
+ * read is kept in memory, or reads selected fields of a top-level object without building the rest of it.
+ */
+public class JsonStreamReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private final JSONTokener tokener;
+    private boolean started;
+    private boolean finished;
+
+    /**
+     * @param filePath json file.
+     * @throws IOException thrown if the file can't be opened.
+     */
+    public JsonStreamReader(Path filePath) throws IOException {
+        FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+        tokener = new JSONTokener(new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8), BUFFER_SIZE));
+        started = false;
+        finished = false;
+    }
+
+    /**
+     * @return true if there is another element in the array.
+     * @throws JSONException thrown if the file is not a well-formed array.
+     */
+    public boolean hasNext() {
+        if (finished) {
+            return false;
+        }
+        char c = tokener.nextClean();
+        if (!started) {
+            if (c != '[') {
+                throw tokener.syntaxError("A JSONArray text must start with '['");
+            }
+            started = true;
+            c = tokener.nextClean();
+            if (c == ']') {
+                finished = true;
+                return false;
+            }
+            tokener.back();
+            return true;
+        }
+        return switch (c) {
+            case ',' -> true;
+            case ']' -> {
+                finished = true;
+                yield false;
+            }
+            default -> throw tokener.syntaxError("Expected a ',' or ']'");
+        };
+    }
+
+    /**
+     * @return next element of the array.
+     * @throws JSONException thrown if the element is not an object.
+     */
+    public JSONObject nextObject() {
+        Object value = tokener.nextValue();
+        if (!(value instanceof JSONObject object)) {
+            throw tokener.syntaxError("Expected an object in the array");
+        }
+        return object;
+    }
+
+    /**
+     * Reads values of the given keys from a top-level object. Values of other keys are skipped without being
+     * decoded and reading stops as soon as all the keys are found.
+     *
+     * @param keys keys to read.
+     * @return object with the found keys.
+     * @throws JSONException thrown if the file is not a well-formed object.
+     */
+    public JSONObject readHeader(Set<String> keys) {
+        JSONObject header = new JSONObject();
+        if (tokener.nextClean() != '{') {
+            throw tokener.syntaxError("A JSONObject text must begin with '{'");
+        }
+        char c = tokener.nextClean();
+        while (c != '}' && header.length() < keys.size()) {
+            if (c != '"') {
+                throw tokener.syntaxError("Expected a key");
+            }
+            String key = tokener.nextString('"');
+            if (tokener.nextClean() != ':') {
+                throw tokener.syntaxError("Expected a ':' after a key");
+            }
+            if (keys.contains(key)) {
+                header.put(key, tokener.nextValue());
+            } else {
+                skipValue();
+            }
+            c = tokener.nextClean();
+            if (c == ',') {
+                c = tokener.nextClean();
+            } else if (c != '}') {
+                throw tokener.syntaxError("Expected a ',' or '}'");
+            }
+        }
+        return header;
+    }
+
+    /**
+     * Skips one value including nested arrays and objects.
+     */
+    private void skipValue() {
+        int depth = 0;
+        do {
+            char c = tokener.nextClean();
+            switch (c) {
+                case '"', '\'' -> tokener.nextString(c);
+                case '{', '[' -> ++depth;
+                case '}', ']' -> --depth;
+                case ',', ':' -> {
+                }
+                case 0 -> throw tokener.syntaxError("Unterminated value");
+                default -> {
+                    tokener.back();
+                    tokener.nextValue();
+                }
+            }
+        } while (depth > 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        tokener.close();
+    }
+}
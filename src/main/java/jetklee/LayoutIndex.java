@@ -0,0 +1,115 @@
+package jetklee;
+
+import java.util.Arrays;
+
+/**
+ * Spatial index of the node locations computed by the layout of the tree. The nodes of one depth share
+ * the y-coordinate, so the index is a list of rows sorted by the y-coordinate, each row keeps its nodes sorted
+ * by the x-coordinate. The nodes in a rectangle are found by binary searches of the rows and of the nodes
+ * in each row overlapping it. The index has to be built again when the layout changes.
+ */
+public class LayoutIndex {
+    /**
+     * Receives the nodes found in a rectangle.
+     */
+    public interface NodeConsumer {
+        void accept(int node);
+    }
+
+    private final int[] rowYs;
+    // nodes of row r are at positions rowStarts[r] to rowStarts[r + 1] in ascending order of the x-coordinates
+    private final int[] rowStarts;
+    private final int[] xs;
+    private final int[] indices;
+
+    /**
+     * Indexes the current locations of the nodes of the tree.
+     *
+     * @param nodes nodes with computed locations.
+     * @param root  index of the root of the tree, only the nodes of its subtree are indexed.
+     */
+    public LayoutIndex(NodeTable nodes, int root) {
+        // nodes sorted by the y-coordinate first, then each row by the x-coordinate
+        long[] keys = new long[nodes.size()];
+        int count = 0;
+        int[] stack = new int[nodes.size()];
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            int node = stack[--top];
+            if (nodes.getLeft(node) != NodeTable.NONE) {
+                stack[top++] = nodes.getLeft(node);
+            }
+            if (nodes.getRight(node) != NodeTable.NONE) {
+                stack[top++] = nodes.getRight(node);
+            }
+            keys[count++] = ((long) nodes.getY(node) << 32) | node;
+        }
+        Arrays.sort(keys, 0, count);
+
+        int rowCount = 0;
+        for (int i = 0; i < count; ++i) {
+            if (i == 0 || (int) (keys[i] >> 32) != (int) (keys[i - 1] >> 32)) {
+                ++rowCount;
+            }
+        }
+        rowYs = new int[rowCount];
+        rowStarts = new int[rowCount + 1];
+        int row = 0;
+        for (int i = 0; i < count; ++i) {
+            int y = (int) (keys[i] >> 32);
+            if (row == 0 || y != rowYs[row - 1]) {
+                rowYs[row] = y;
+                rowStarts[row++] = i;
+            }
+            int node = (int) keys[i];
+            keys[i] = ((long) nodes.getX(node) << 32) | node;
+        }
+        rowStarts[rowCount] = count;
+
+        xs = new int[count];
+        indices = new int[count];
+        for (int r = 0; r < rowCount; ++r) {
+            Arrays.sort(keys, rowStarts[r], rowStarts[r + 1]);
+        }
+        for (int i = 0; i < count; ++i) {
+            xs[i] = (int) (keys[i] >> 32);
+            indices[i] = (int) keys[i];
+        }
+    }
+
+    /**
+     * Finds nodes whose location is inside the rectangle (inclusive).
+     *
+     * @param minX     minimal x-coordinate of the rectangle.
+     * @param minY     minimal y-coordinate of the rectangle.
+     * @param maxX     maximal x-coordinate of the rectangle.
+     * @param maxY     maximal y-coordinate of the rectangle.
+     * @param consumer receives indices of the found nodes.
+     */
+    public void forEachNode(long minX, long minY, long maxX, long maxY, NodeConsumer consumer) {
+        for (int r = firstAtLeast(rowYs, 0, rowYs.length, minY); r < rowYs.length && rowYs[r] <= maxY; ++r) {
+            for (int i = firstAtLeast(xs, rowStarts[r], rowStarts[r + 1], minX); i < rowStarts[r + 1] && xs[i] <= maxX;
+                 ++i) {
+                consumer.accept(indices[i]);
+            }
+        }
+    }
+
+    /**
+     * @return the first position from start to end (exclusive) whose value is at least the given one or end.
+     */
+    private static int firstAtLeast(int[] values, int start, int end, long value) {
+        int low = start;
+        int high = end;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
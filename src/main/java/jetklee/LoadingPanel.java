@@ -0,0 +1,81 @@
+package jetklee;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Status bar which displays the progress of a running load and allows to cancel it.
+ */
+public class LoadingPanel extends JPanel {
+    private static final int REFRESH_PERIOD_MS = 100;
+    private static final double MEGABYTE = 1024.0 * 1024.0;
+    private final JLabel statusLabel;
+    private final JProgressBar progressBar;
+    private final Timer refreshTimer;
+    private RecordingLoader loader;
+
+    public LoadingPanel() {
+        super(new BorderLayout(5, 0));
+
+        statusLabel = new JLabel();
+        progressBar = new JProgressBar(0, 1000);
+        progressBar.setPreferredSize(new Dimension(200, progressBar.getPreferredSize().height));
+
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> {
+            if (loader != null) {
+                loader.cancel(true);
+            }
+        });
+
+        JPanel progressPanel = new JPanel(new BorderLayout(5, 0));
+        progressPanel.add(progressBar, BorderLayout.CENTER);
+        progressPanel.add(cancelButton, BorderLayout.EAST);
+
+        this.add(statusLabel, BorderLayout.CENTER);
+        this.add(progressPanel, BorderLayout.EAST);
+        this.setBorder(BorderFactory.createEmptyBorder(2, 5, 2, 5));
+        this.setVisible(false);
+
+        refreshTimer = new Timer(REFRESH_PERIOD_MS, e -> refresh());
+    }
+
+    /**
+     * Starts displaying progress of the given loader.
+     *
+     * @param loader loader whose progress is displayed.
+     */
+    public void start(RecordingLoader loader) {
+        this.loader = loader;
+        refresh();
+        setVisible(true);
+        refreshTimer.start();
+    }
+
+    public void stop() {
+        refreshTimer.stop();
+        loader = null;
+        setVisible(false);
+    }
+
+    private void refresh() {
+        if (loader == null) {
+            return;
+        }
+        int fileCount = loader.getFileCount();
+        long byteCount = loader.getByteCount();
+        if (byteCount == 0) {
+            statusLabel.setText("Loading " + loader.getPhase() + "...");
+            progressBar.setIndeterminate(true);
+            return;
+        }
+        long loadedBytes = loader.getLoadedBytes();
+        long remaining = loader.getRemainingSeconds();
+
+        statusLabel.setText(String.format("Loading %s: %d / %d files, %.1f / %.1f MB, ETA %s",
+                loader.getPhase(), loader.getLoadedFiles(), fileCount, loadedBytes / MEGABYTE, byteCount / MEGABYTE,
+                remaining < 0 ? "?" : String.format("%d:%02d", remaining / 60, remaining % 60)));
+        progressBar.setIndeterminate(false);
+        progressBar.setValue((int) (progressBar.getMaximum() * loadedBytes / byteCount));
+    }
+}
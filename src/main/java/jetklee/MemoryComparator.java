@@ -0,0 +1,211 @@
+package jetklee;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Compares memory of two arbitrary nodes. Only objects and bytes written on the paths from the lowest common
+ * ancestor of the nodes down to the nodes can differ, so only those are compared. The complete memories of
+ * the nodes are reconstructed from the complete memory of the common ancestor, which is cached, so the cost
+ * depends on the diffs along the two paths rather than on the size of the memory.
+ */
+public class MemoryComparator {
+    public enum ObjectStatus {
+        ADDED, REMOVED, CHANGED
+    }
+
+    /**
+     * Part of a plane a byte value belongs to.
+     */
+    public enum BytePart {
+        CONCRETE, MASK, SYMBOLIC
+    }
+
+    /**
+     * Byte whose values differ, a value is null if the byte is not present in the memory of that node.
+     */
+    public record ByteDifference(ExecutionState.Plane.PlaneType plane, BytePart part, int index, String leftValue,
+                                 String rightValue) {
+    }
+
+    /**
+     * Object which differs. An added object is present only in the right node, a removed one only in the left one.
+     */
+    public record ObjectDifference(int objID, ObjectStatus status, ExecutionState.ObjectState left,
+                                   ExecutionState.ObjectState right, List<ByteDifference> bytes) {
+    }
+
+    /**
+     * @param commonAncestor lowest common ancestor of the nodes.
+     * @param objects        objects which differ in ascending order of their IDs.
+     */
+    public record Comparison(Node left, Node right, Node commonAncestor, List<ObjectDifference> objects) {
+    }
+
+    /**
+     * Indices of the bytes of one object written on the paths, for each plane and each part of the plane.
+     */
+    private static final class WrittenBytes {
+        private final BitSet[] indices = new BitSet[ExecutionState.Plane.PlaneType.values().length
+                * BytePart.values().length];
+
+        private BitSet get(ExecutionState.Plane.PlaneType plane, BytePart part) {
+            int slot = plane.ordinal() * BytePart.values().length + part.ordinal();
+            if (indices[slot] == null) {
+                indices[slot] = new BitSet();
+            }
+            return indices[slot];
+        }
+    }
+
+    /**
+     * @param left  the first node.
+     * @param right the second node.
+     * @return differences of the memory of the right node against the left node.
+     * @throws IllegalArgumentException thrown if the nodes are not from the same tree.
+     */
+    public static Comparison compare(Node left, Node right) {
+        Node commonAncestor = findCommonAncestor(left, right);
+        if (commonAncestor == null) {
+            throw new IllegalArgumentException("The nodes are not from the same tree");
+        }
+        TreeMap<Integer, WrittenBytes> writtenObjects = new TreeMap<>();
+        collectWrites(left, commonAncestor, writtenObjects);
+        collectWrites(right, commonAncestor, writtenObjects);
+
+        // reconstruction of the common ancestor is cached, the nodes are then reconstructed from it
+        CompleteMemoryRetriever.getCompleteMemoryMap(commonAncestor);
+        PersistentIntMap<ExecutionState.ObjectState> leftMemory = CompleteMemoryRetriever.getCompleteMemoryMap(left);
+        PersistentIntMap<ExecutionState.ObjectState> rightMemory = CompleteMemoryRetriever.getCompleteMemoryMap(right);
+
+        List<ObjectDifference> objects = new ArrayList<>();
+        writtenObjects.forEach((objID, writtenBytes) -> {
+            ExecutionState.ObjectState leftState = leftMemory.get(objID);
+            ExecutionState.ObjectState rightState = rightMemory.get(objID);
+            if (leftState == rightState) {
+                return;
+            }
+            if (leftState == null) {
+                objects.add(new ObjectDifference(objID, ObjectStatus.ADDED, null, rightState, List.of()));
+            } else if (rightState == null) {
+                objects.add(new ObjectDifference(objID, ObjectStatus.REMOVED, leftState, null, List.of()));
+            } else {
+                List<ByteDifference> bytes = compareBytes(leftState, rightState, writtenBytes);
+                if (!bytes.isEmpty()) {
+                    objects.add(new ObjectDifference(objID, ObjectStatus.CHANGED, leftState, rightState, bytes));
+                }
+            }
+        });
+        return new Comparison(left, right, commonAncestor, objects);
+    }
+
+    /**
+     * Climbs from both nodes at once, so only the paths below the common ancestor and the same number of its
+     * ancestors are visited.
+     *
+     * @return the lowest common ancestor or null if the nodes are not from the same tree.
+     */
+    private static Node findCommonAncestor(Node left, Node right) {
+        Set<Node> leftPath = new HashSet<>();
+        Set<Node> rightPath = new HashSet<>();
+        Node a = left;
+        Node b = right;
+        while (a != null || b != null) {
+            if (a != null) {
+                if (rightPath.contains(a)) {
+                    return a;
+                }
+                leftPath.add(a);
+                a = a.getParent();
+            }
+            if (b != null) {
+                if (leftPath.contains(b)) {
+                    return b;
+                }
+                rightPath.add(b);
+                b = b.getParent();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Collects objects and their bytes written by the nodes on the path from the node up to the ancestor (exclusive).
+     */
+    private static void collectWrites(Node node, Node ancestor, TreeMap<Integer, WrittenBytes> writtenObjects) {
+        for (Node current = node; !current.equals(ancestor); current = current.getParent()) {
+            ExecutionState.Memory memory = current.getExecutionState().getMemory();
+            if (memory == null) {
+                continue;
+            }
+            for (ExecutionState.ObjectState addition : memory.additions()) {
+                collectWrites(addition, writtenObjects.computeIfAbsent(addition.objID(), objID -> new WrittenBytes()));
+            }
+            for (ExecutionState.ObjectState change : memory.changes()) {
+                collectWrites(change, writtenObjects.computeIfAbsent(change.objID(), objID -> new WrittenBytes()));
+            }
+            for (ExecutionState.Deletion deletion : memory.deletions()) {
+                writtenObjects.computeIfAbsent(deletion.objID(), objID -> new WrittenBytes());
+            }
+        }
+    }
+
+    private static void collectWrites(ExecutionState.ObjectState objectState, WrittenBytes writtenBytes) {
+        for (ExecutionState.Plane.PlaneType planeType : ExecutionState.Plane.PlaneType.values()) {
+            ExecutionState.Plane plane = getPlane(objectState, planeType);
+            if (plane == null) {
+                continue;
+            }
+            for (BytePart part : BytePart.values()) {
+                ExecutionState.Diff diff = getPart(plane, part);
+                BitSet indices = writtenBytes.get(planeType, part);
+                diff.additions().forEach((index, value) -> indices.set(index));
+                diff.deletions().forEach((index, value) -> indices.set(index));
+            }
+        }
+    }
+
+    private static List<ByteDifference> compareBytes(ExecutionState.ObjectState left, ExecutionState.ObjectState right,
+                                                     WrittenBytes writtenBytes) {
+        List<ByteDifference> bytes = new ArrayList<>();
+        for (ExecutionState.Plane.PlaneType planeType : ExecutionState.Plane.PlaneType.values()) {
+            ExecutionState.Plane leftPlane = getPlane(left, planeType);
+            ExecutionState.Plane rightPlane = getPlane(right, planeType);
+            if (leftPlane == rightPlane) {
+                continue;
+            }
+            for (BytePart part : BytePart.values()) {
+                ExecutionState.ByteMap leftBytes = leftPlane == null ? null : getPart(leftPlane, part).additions();
+                ExecutionState.ByteMap rightBytes = rightPlane == null ? null : getPart(rightPlane, part).additions();
+                BitSet indices = writtenBytes.get(planeType, part);
+                for (int index = indices.nextSetBit(0); index >= 0; index = indices.nextSetBit(index + 1)) {
+                    String leftValue = leftBytes == null ? null : leftBytes.get(index);
+                    String rightValue = rightBytes == null ? null : rightBytes.get(index);
+                    if (!Objects.equals(leftValue, rightValue)) {
+                        bytes.add(new ByteDifference(planeType, part, index, leftValue, rightValue));
+                    }
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static ExecutionState.Plane getPlane(ExecutionState.ObjectState objectState,
+                                                 ExecutionState.Plane.PlaneType planeType) {
+        return planeType == ExecutionState.Plane.PlaneType.SEGMENT
+                ? objectState.segmentPlane() : objectState.offsetPlane();
+    }
+
+    private static ExecutionState.Diff getPart(ExecutionState.Plane plane, BytePart part) {
+        return switch (part) {
+            case CONCRETE -> plane.concreteStore();
+            case MASK -> plane.concreteMask();
+            case SYMBOLIC -> plane.knownSymbolics();
+        };
+    }
+}
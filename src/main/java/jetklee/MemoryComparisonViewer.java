@@ -0,0 +1,99 @@
+package jetklee;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Window that displays differences of memory of two nodes.
+ */
+public class MemoryComparisonViewer {
+    private static final String[] COLUMNS = {"object", "status", "plane", "part", "index", "left", "right"};
+
+    /**
+     * Opens a window with the differences of the right node's memory against the left node's memory.
+     * The memory is compared on a background thread.
+     *
+     * @param parent component the window is placed relative to.
+     * @param left   the first node.
+     * @param right  the second node.
+     */
+    public static void showComparison(Component parent, Node left, Node right) {
+        JFrame popup = new JFrame("Memory of node " + left.getId() + " vs node " + right.getId());
+        popup.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        popup.setSize(800, 400);
+        popup.setResizable(true);
+        popup.add(new JLabel("Comparing..."));
+        popup.setLocationRelativeTo(parent);
+        popup.setVisible(true);
+
+        new SwingWorker<MemoryComparator.Comparison, Void>() {
+            @Override
+            protected MemoryComparator.Comparison doInBackground() {
+                return MemoryComparator.compare(left, right);
+            }
+
+            @Override
+            protected void done() {
+                MemoryComparator.Comparison comparison;
+                try {
+                    comparison = get();
+                } catch (Exception e) {
+                    popup.dispose();
+                    JOptionPane.showMessageDialog(parent, "Compare has FAILED: " + e);
+                    return;
+                }
+                displayComparison(popup, comparison);
+            }
+        }.execute();
+    }
+
+    private static void displayComparison(JFrame popup, MemoryComparator.Comparison comparison) {
+        List<MemoryComparator.ObjectDifference> objects = comparison.objects();
+        int rowCount = 0;
+        for (MemoryComparator.ObjectDifference object : objects) {
+            rowCount += Math.max(1, object.bytes().size());
+        }
+        Object[][] data = new Object[rowCount][COLUMNS.length];
+        int row = 0;
+        for (MemoryComparator.ObjectDifference object : objects) {
+            ExecutionState.ObjectState objectState = object.right() != null ? object.right() : object.left();
+            String objectName = object.objID() + " " + getRootObject(objectState);
+            if (object.bytes().isEmpty()) {
+                data[row++] = new Object[]{objectName, object.status(), "", "", "", "", ""};
+                continue;
+            }
+            for (MemoryComparator.ByteDifference difference : object.bytes()) {
+                data[row++] = new Object[]{objectName, object.status(), difference.plane(), difference.part(),
+                        difference.index(), valueOrEmpty(difference.leftValue()), valueOrEmpty(difference.rightValue())};
+            }
+        }
+        JTable table = new JTable(data, COLUMNS);
+        table.setDefaultEditor(Object.class, null);
+
+        JLabel header = new JLabel("Common ancestor: node " + comparison.commonAncestor().getId()
+                + ", left: node " + comparison.left().getId() + ", right: node " + comparison.right().getId()
+                + ", " + objects.size() + " objects differ");
+        header.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+
+        popup.getContentPane().removeAll();
+        popup.add(header, BorderLayout.NORTH);
+        popup.add(new JScrollPane(table), BorderLayout.CENTER);
+        popup.revalidate();
+        popup.repaint();
+    }
+
+    private static String getRootObject(ExecutionState.ObjectState objectState) {
+        if (objectState.segmentPlane() != null) {
+            return objectState.segmentPlane().rootObject();
+        }
+        if (objectState.offsetPlane() != null) {
+            return objectState.offsetPlane().rootObject();
+        }
+        return "";
+    }
+
+    private static String valueOrEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -22,7 +22,9 @@ public class MemoryViewer extends JPanel implements ListSelectionListener {
     private int shortSelection;
     private JButton showAllButton;
     private Node currentNode;
+    private ExecutionState.Memory nodeMemory;
     private ExecutionState.Memory currentMemory;
+    private SwingWorker<ExecutionState.Memory, Void> completeMemoryWorker;
     private SourceViewerLL sourceLL;
     private ObjectInfoViewer objectInfoViewer;
     private JList<String> objectsList;
@@ -140,29 +142,64 @@ public class MemoryViewer extends JPanel implements ListSelectionListener {
         return new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                showAll = !showAll;
-                if (showAll) {
-                    showAllButton.setText("Hide");
+                if (!showAll) {
+                    showAllButton.setEnabled(false);
                     shortSelection = objectsList.getSelectedIndex();
                     if (shortSelection < 0 || shortSelection >= objects.size()) {
                         shortSelection = 0;
                     }
-                    currentMemory = getCompleteMemory(currentNode);
-                    objectsList.setSelectedIndex(showAllSelection);
+                    retrieveCompleteMemory();
                 } else {
+                    showAll = false;
                     showAllButton.setText("Show All");
                     showAllSelection = objectsList.getSelectedIndex();
                     if (showAllSelection < 0 || showAllSelection >= objects.size()) {
                         showAllSelection = 0;
                     }
-                    currentMemory = currentNode.getExecutionState().getMemory();
+                    currentMemory = nodeMemory;
                     objectsList.setSelectedIndex(shortSelection);
+                    displayMemory(currentMemory, collectObjects(currentNode, currentMemory));
                 }
-                displayMemory(currentMemory);
             }
         };
     }
 
+    /**
+     * Reconstructs the complete memory of the current node on a background thread and displays it,
+     * unless another node is displayed meanwhile.
+     */
+    private void retrieveCompleteMemory() {
+        final Node node = currentNode;
+        completeMemoryWorker = new SwingWorker<>() {
+            @Override
+            protected ExecutionState.Memory doInBackground() {
+                return getCompleteMemory(node);
+            }
+
+            @Override
+            protected void done() {
+                if (completeMemoryWorker != this) {
+                    return;
+                }
+                completeMemoryWorker = null;
+                showAllButton.setEnabled(true);
+                ExecutionState.Memory memory;
+                try {
+                    memory = get();
+                } catch (Exception e) {
+                    JOptionPane.showMessageDialog(MemoryViewer.this, "Show All has FAILED: " + e);
+                    return;
+                }
+                showAll = true;
+                showAllButton.setText("Hide");
+                currentMemory = memory;
+                objectsList.setSelectedIndex(showAllSelection);
+                displayMemory(currentMemory, collectObjects(currentNode, currentMemory));
+            }
+        };
+        completeMemoryWorker.execute();
+    }
+
     /**
      * Sets up the memory viewer to display the memory of the given node.
      *
@@ -170,33 +207,62 @@ public class MemoryViewer extends JPanel implements ListSelectionListener {
      * @param sourceLL the source viewer for the corresponding LLVM code
      */
     public void setupAndDisplayMemory(Node node, SourceViewerLL sourceLL) {
+        ExecutionState.Memory memory = node.getExecutionState().getMemory();
+        setupAndDisplayMemory(node, sourceLL, memory, collectObjects(node, memory));
+    }
+
+    /**
+     * Sets up the memory viewer to display the memory of the given node prepared on a background thread.
+     *
+     * @param node     the node whose memory should be displayed
+     * @param sourceLL the source viewer for the corresponding LLVM code
+     * @param memory   memory of the node
+     * @param objects  objects of the memory prepared by {@link #collectObjects(Node, ExecutionState.Memory)}
+     */
+    public void setupAndDisplayMemory(Node node, SourceViewerLL sourceLL, ExecutionState.Memory memory,
+                                      ArrayList<ExecutionState.ObjectState> objects) {
         this.sourceLL = sourceLL;
         currentNode = node;
-
-        currentMemory = node.getExecutionState().getMemory();
+        nodeMemory = memory;
+        currentMemory = memory;
+        completeMemoryWorker = null;
 
         showAll = false;
         showAllButton.setText("Show All");
+        showAllButton.setEnabled(true);
 
-        displayMemory(currentMemory);
+        displayMemory(currentMemory, objects);
         objectsList.setSelectedIndex(0);
     }
 
-    private void displayMemory(ExecutionState.Memory memory) {
-        displayTables(memory);
-        displayObjectInfo(objectsList, memory, objects, sourceLL, objectInfoPanel, currentNode);
+    /**
+     * Collects the objects displayed for the memory, deleted objects are represented by their last state.
+     * Does not touch the panel, so it can be called from any thread.
+     *
+     * @param node   the node whose memory is displayed.
+     * @param memory memory of the node or its complete memory.
+     * @return added, changed and deleted objects.
+     */
+    public static ArrayList<ExecutionState.ObjectState> collectObjects(Node node, ExecutionState.Memory memory) {
+        ArrayList<ExecutionState.ObjectState> objects = new ArrayList<>(memory.additions());
+        objects.addAll(memory.changes());
+
+        for (ExecutionState.Deletion deletion : memory.deletions()) {
+            objects.add(getDeletedObjectState(node, deletion.objID()));
+        }
+        return objects;
+    }
+
+    private void displayMemory(ExecutionState.Memory memory, ArrayList<ExecutionState.ObjectState> objects) {
+        displayTables(memory, objects);
+        displayObjectInfo(objectsList, memory, this.objects, sourceLL, objectInfoPanel, currentNode);
     }
 
-    private void displayTables(ExecutionState.Memory memory) {
+    private void displayTables(ExecutionState.Memory memory, ArrayList<ExecutionState.ObjectState> objects) {
         segmentPanel.updateTables(null, false);
         offsetPanel.updateTables(null, false);
 
-        objects = new ArrayList<>(memory.additions());
-        objects.addAll(memory.changes());
-
-        for (ExecutionState.Deletion deletion : memory.deletions()) {
-            objects.add(getDeletedObjectState(currentNode, deletion.objID()));
-        }
+        this.objects = objects;
 
 //        int maxDigits = 0;
 //        for (NodeMemory.ObjectState object : objects) {
@@ -252,6 +318,9 @@ public class MemoryViewer extends JPanel implements ListSelectionListener {
             ExecutionState.Plane offsetPlane = currentObjectState.offsetPlane();
             ExecutionState.Plane segmentPlane = currentObjectState.segmentPlane();
 
+            segmentPanel.setHistorySource(currentNode, selected);
+            offsetPanel.setHistorySource(currentNode, selected);
+
             segmentPanel.updateTables(segmentPlane, !showAll);
             offsetPanel.updateTables(offsetPlane, !showAll);
         } else {
@@ -267,7 +336,7 @@ public class MemoryViewer extends JPanel implements ListSelectionListener {
         }
 
         updatePlanes();
-        displayObjectInfo(objectsList, currentNode.getExecutionState().getMemory(), objects, sourceLL, objectInfoPanel, currentNode);
+        displayObjectInfo(objectsList, nodeMemory, objects, sourceLL, objectInfoPanel, currentNode);
 
     }
 }
@@ -1,124 +1,126 @@
 package jetklee;
 
 /**
- * Node of the process tree
+ * Node of the process tree. A thin view of one row of the {@link NodeTable}, the data are stored in the table.
+ * Two facades of the same row are equal.
  */
 public class Node {
 
     public class ViewProps {
-        private int x = 0;
-        private int y = 0;
-        private int subTreeMinX = 0;
-        private int subTreeMaxX = 0;
-
         public int getX() {
-            return x;
+            return table.getX(index);
         }
 
         public int getY() {
-            return y;
+            return table.getY(index);
         }
 
         public int getSubTreeMinX() {
-            return subTreeMinX;
+            return table.getSubTreeMinX(index);
         }
 
         public int getSubTreeMaxX() {
-            return subTreeMaxX;
+            return table.getSubTreeMaxX(index);
         }
 
         public void setX(int x) {
-            this.x = x;
+            table.setX(index, x);
         }
 
         public void setY(int y) {
-            this.y = y;
+            table.setY(index, y);
         }
 
         public void setSubTreeMinX(int subTreeMinX) {
-            this.subTreeMinX = subTreeMinX;
+            table.setSubTreeMinX(index, subTreeMinX);
         }
 
         public void setSubTreeMaxX(int subTreeMaxX) {
-            this.subTreeMaxX = subTreeMaxX;
+            table.setSubTreeMaxX(index, subTreeMaxX);
         }
     }
-    private final int id;
-    private int startRound;
-    private int endRound;
-    private Node parent;
-    private Node left;
-    private Node right;
-    private ViewProps viewProps;
-
-    private ExecutionState es;
+    private final NodeTable table;
+    private final int index;
 
     /**
-     * @param id_ unique node id
+     * @param table table which stores the node.
+     * @param index index of the node in the table.
      */
-    public Node(int id_) {
-        id = id_;
-        endRound = 0;
-
-        es = null;
-        parent = null;
-        left = null;
-        right = null;
-        viewProps = new ViewProps();
+    Node(NodeTable table, int index) {
+        this.table = table;
+        this.index = index;
     }
+
     public void setExecutionState(ExecutionState es) {
-        this.es = es;
+        table.setExecutionState(index, es);
     }
 
     public ExecutionState getExecutionState() {
-        return es;
+        return table.getExecutionState(index);
     }
 
     public ViewProps getViewProps() {
-        return viewProps;
+        return new ViewProps();
     }
 
     public int getStartRound() {
-        return startRound;
+        return table.getStartRound(index);
     }
 
     public int getEndRound() {
-        return endRound;
+        return table.getEndRound(index);
     }
 
     public Node getParent() {
-        return parent;
+        return table.node(table.getParent(index));
     }
 
     public Node getLeft() {
-        return left;
+        return table.node(table.getLeft(index));
     }
 
     public Node getRight() {
-        return right;
+        return table.node(table.getRight(index));
     }
 
     public int getId() {
-        return id;
+        return table.getId(index);
+    }
+
+    /**
+     * @return index of the node in its table.
+     */
+    int getIndex() {
+        return index;
     }
 
     public void setStartRound(int startRound) {
-        this.startRound = startRound;
+        table.setStartRound(index, startRound);
     }
 
     public void setEndRound(int endRound) {
-        this.endRound = endRound;
+        table.setEndRound(index, endRound);
     }
 
     public void setParent(Node parent) {
-        this.parent = parent;
+        table.setParent(index, parent == null ? NodeTable.NONE : parent.index);
     }
 
     public void setLeft(Node left) {
-        this.left = left;
+        table.setLeft(index, left == null ? NodeTable.NONE : left.index);
     }
 
     public void setRight(Node right) {
-        this.right = right;
+        table.setRight(index, right == null ? NodeTable.NONE : right.index);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Node other && other.table == table && other.index == index;
+    }
+
+    @Override
+    public int hashCode() {
+        return index;
     }
 }
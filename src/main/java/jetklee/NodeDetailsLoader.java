@@ -0,0 +1,148 @@
+package jetklee;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Prepares the information about a selected node on a background thread, so the Event Dispatch Thread is not
+ * blocked by parsing the node's memory file or formatting its constraints. Selections which change quickly are
+ * debounced, only the last one is prepared. Work for a node which is no longer selected is cancelled and its
+ * results are never published.
+ */
+public class NodeDetailsLoader {
+    /**
+     * Receives the prepared information. Called on the Event Dispatch Thread.
+     */
+    public interface Listener {
+        /**
+         * @param details information about the last requested node.
+         */
+        void detailsLoaded(NodeDetails details);
+
+        /**
+         * The last requested node has no information to display
+         * (if the execution was terminated early, the node may not have it).
+         *
+         * @param node the requested node.
+         */
+        void detailsMissing(Node node);
+
+        void detailsFailed(Node node, Exception e);
+    }
+
+    /**
+     * Information about one node ready to be displayed by the viewers.
+     */
+    public record NodeDetails(Node node, ExecutionState.Context context, String contextHtml, List<String> constraints,
+                              String constraintsHtml, ExecutionState.Memory memory,
+                              ArrayList<ExecutionState.ObjectState> objects) {
+    }
+
+    private static final int DEBOUNCE_DELAY_MS = 100;
+    private final Listener listener;
+    private final Timer debounceTimer;
+    private Node requestedNode;
+    private Worker worker;
+
+    /**
+     * @param listener receives the prepared information.
+     */
+    public NodeDetailsLoader(Listener listener) {
+        this.listener = listener;
+        debounceTimer = new Timer(DEBOUNCE_DELAY_MS, e -> start());
+        debounceTimer.setRepeats(false);
+    }
+
+    /**
+     * Requests information about the node. A previous request which is not published yet is cancelled.
+     * Must be called on the Event Dispatch Thread.
+     *
+     * @param node the node for which information is requested.
+     */
+    public void request(Node node) {
+        cancel();
+        requestedNode = node;
+        debounceTimer.restart();
+    }
+
+    /**
+     * Cancels the pending request, nothing is published until the next one.
+     */
+    public void cancel() {
+        requestedNode = null;
+        debounceTimer.stop();
+        if (worker != null) {
+            // not interrupted, so reading of the memory file is not aborted halfway
+            worker.cancel(false);
+            worker = null;
+        }
+    }
+
+    private void start() {
+        if (requestedNode == null) {
+            return;
+        }
+        worker = new Worker(requestedNode);
+        requestedNode = null;
+        worker.execute();
+    }
+
+    private class Worker extends SwingWorker<NodeDetails, Void> {
+        private final Node node;
+
+        private Worker(Node node) {
+            this.node = node;
+        }
+
+        @Override
+        protected NodeDetails doInBackground() {
+            ExecutionState es = node.getExecutionState();
+            ExecutionState.Memory memory = es.getMemory();
+            if (memory == null) {
+                return null;
+            }
+            checkCancelled();
+            ExecutionState.Context context = es.getContext();
+            String contextHtml = ContextViewer.createHtml(context);
+
+            checkCancelled();
+            List<String> constraints = es.getConstraints();
+            String constraintsHtml = ConstraintsViewer.createHtml(constraints, false);
+
+            checkCancelled();
+            ArrayList<ExecutionState.ObjectState> objects = MemoryViewer.collectObjects(node, memory);
+            return new NodeDetails(node, context, contextHtml, constraints, constraintsHtml, memory, objects);
+        }
+
+        private void checkCancelled() {
+            if (isCancelled()) {
+                throw new CancellationException();
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (worker != this) {
+                return;
+            }
+            worker = null;
+            NodeDetails details;
+            try {
+                details = get();
+            } catch (CancellationException | InterruptedException e) {
+                return;
+            } catch (ExecutionException e) {
+                listener.detailsFailed(node, e.getCause() instanceof Exception cause ? cause : e);
+                return;
+            }
+            if (details == null) {
+                listener.detailsMissing(node);
+            } else {
+                listener.detailsLoaded(details);
+            }
+        }
+    }
+}
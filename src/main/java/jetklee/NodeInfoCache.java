@@ -0,0 +1,65 @@
+package jetklee;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of lazily parsed node information. Keeps the most recently used entries.
+ */
+public class NodeInfoCache {
+    private final int capacity;
+    private final LinkedHashMap<ExecutionState, ExecutionState.NodeInfo> entries;
+
+    /**
+     * @param capacity maximal number of cached entries.
+     */
+    public NodeInfoCache(int capacity) {
+        this.capacity = capacity;
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ExecutionState, ExecutionState.NodeInfo> eldest) {
+                return size() > NodeInfoCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns cached information of the execution state or loads it from the source on a miss.
+     *
+     * @param es     execution state whose information is requested.
+     * @param source source to parse the information from.
+     * @return parsed information or null if it can't be loaded.
+     */
+    public ExecutionState.NodeInfo get(ExecutionState es, ExecutionState.NodeInfoSource source) {
+        synchronized (entries) {
+            ExecutionState.NodeInfo info = entries.get(es);
+            if (info != null) {
+                return info;
+            }
+        }
+        // parse outside the lock, so other nodes can be served meanwhile
+        ExecutionState.NodeInfo info = source.load(es);
+        if (info != null) {
+            synchronized (entries) {
+                entries.put(es, info);
+            }
+        }
+        return info;
+    }
+
+    /**
+     * @param es execution state whose information is requested.
+     * @return cached information of the execution state or null, nothing is loaded on a miss.
+     */
+    public ExecutionState.NodeInfo peek(ExecutionState es) {
+        synchronized (entries) {
+            return entries.get(es);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+}
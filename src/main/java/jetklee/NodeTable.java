@@ -0,0 +1,270 @@
+package jetklee;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Columnar storage of the process tree nodes. Every node gets a dense index in the order of insertion and its
+ * properties are stored in primitive arrays at that index, so there is no object per node except the execution
+ * state. Node ids are mapped to the indices by an open-addressing hash table.
+ * {@link Node} is a thin facade over one index of the table.
+ */
+public class NodeTable implements Iterable<Node> {
+    /**
+     * Index of a missing node (no parent, no child, unknown id).
+     */
+    public static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+    private int[] ids;
+    private int[] parents;
+    private int[] lefts;
+    private int[] rights;
+    private int[] startRounds;
+    private int[] endRounds;
+    private int[] xs;
+    private int[] ys;
+    private int[] subTreeMinXs;
+    private int[] subTreeMaxXs;
+    private ExecutionState[] states;
+
+    // id -> index + 1, zero marks an empty slot
+    private int[] slotIds;
+    private int[] slotIndices;
+
+    public NodeTable() {
+        size = 0;
+        allocate(INITIAL_CAPACITY);
+        slotIds = new int[2 * INITIAL_CAPACITY];
+        slotIndices = new int[2 * INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds a node without links, rounds and layout. If a node with the id already exists, it is reset instead.
+     *
+     * @param id unique node id.
+     * @return index of the node.
+     */
+    public int add(int id) {
+        int existing = indexOf(id);
+        if (existing != NONE) {
+            reset(existing);
+            return existing;
+        }
+        if (size == ids.length) {
+            allocate(2 * size);
+        }
+        if (2 * (size + 1) > slotIds.length) {
+            rehash(2 * slotIds.length);
+        }
+        int index = size++;
+        ids[index] = id;
+        reset(index);
+        insertSlot(id, index);
+        return index;
+    }
+
+    /**
+     * @param id node id.
+     * @return index of the node or {@link #NONE} if there is no such node.
+     */
+    public int indexOf(int id) {
+        int mask = slotIds.length - 1;
+        for (int slot = mix(id) & mask; slotIndices[slot] != 0; slot = (slot + 1) & mask) {
+            if (slotIds[slot] == id) {
+                return slotIndices[slot] - 1;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * @param id node id.
+     * @return node with the id or null if there is no such node.
+     */
+    public Node get(int id) {
+        return node(indexOf(id));
+    }
+
+    /**
+     * @param index index of the node.
+     * @return facade of the node or null for {@link #NONE}.
+     */
+    public Node node(int index) {
+        return index == NONE ? null : new Node(this, index);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        return new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public Node next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                return new Node(NodeTable.this, index++);
+            }
+        };
+    }
+
+    int getId(int index) {
+        return ids[index];
+    }
+
+    int getParent(int index) {
+        return parents[index];
+    }
+
+    int getLeft(int index) {
+        return lefts[index];
+    }
+
+    int getRight(int index) {
+        return rights[index];
+    }
+
+    int getStartRound(int index) {
+        return startRounds[index];
+    }
+
+    int getEndRound(int index) {
+        return endRounds[index];
+    }
+
+    int getX(int index) {
+        return xs[index];
+    }
+
+    int getY(int index) {
+        return ys[index];
+    }
+
+    int getSubTreeMinX(int index) {
+        return subTreeMinXs[index];
+    }
+
+    int getSubTreeMaxX(int index) {
+        return subTreeMaxXs[index];
+    }
+
+    ExecutionState getExecutionState(int index) {
+        return states[index];
+    }
+
+    void setParent(int index, int parent) {
+        parents[index] = parent;
+    }
+
+    void setLeft(int index, int left) {
+        lefts[index] = left;
+    }
+
+    void setRight(int index, int right) {
+        rights[index] = right;
+    }
+
+    void setStartRound(int index, int startRound) {
+        startRounds[index] = startRound;
+    }
+
+    void setEndRound(int index, int endRound) {
+        endRounds[index] = endRound;
+    }
+
+    void setX(int index, int x) {
+        xs[index] = x;
+    }
+
+    void setY(int index, int y) {
+        ys[index] = y;
+    }
+
+    void setSubTreeMinX(int index, int subTreeMinX) {
+        subTreeMinXs[index] = subTreeMinX;
+    }
+
+    void setSubTreeMaxX(int index, int subTreeMaxX) {
+        subTreeMaxXs[index] = subTreeMaxX;
+    }
+
+    void setExecutionState(int index, ExecutionState es) {
+        states[index] = es;
+    }
+
+    private void reset(int index) {
+        parents[index] = NONE;
+        lefts[index] = NONE;
+        rights[index] = NONE;
+        startRounds[index] = 0;
+        endRounds[index] = 0;
+        xs[index] = 0;
+        ys[index] = 0;
+        subTreeMinXs[index] = 0;
+        subTreeMaxXs[index] = 0;
+        states[index] = null;
+    }
+
+    private void allocate(int capacity) {
+        if (ids == null) {
+            ids = new int[capacity];
+            parents = new int[capacity];
+            lefts = new int[capacity];
+            rights = new int[capacity];
+            startRounds = new int[capacity];
+            endRounds = new int[capacity];
+            xs = new int[capacity];
+            ys = new int[capacity];
+            subTreeMinXs = new int[capacity];
+            subTreeMaxXs = new int[capacity];
+            states = new ExecutionState[capacity];
+            return;
+        }
+        ids = Arrays.copyOf(ids, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        lefts = Arrays.copyOf(lefts, capacity);
+        rights = Arrays.copyOf(rights, capacity);
+        startRounds = Arrays.copyOf(startRounds, capacity);
+        endRounds = Arrays.copyOf(endRounds, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        subTreeMinXs = Arrays.copyOf(subTreeMinXs, capacity);
+        subTreeMaxXs = Arrays.copyOf(subTreeMaxXs, capacity);
+        states = Arrays.copyOf(states, capacity);
+    }
+
+    private void rehash(int slotCount) {
+        slotIds = new int[slotCount];
+        slotIndices = new int[slotCount];
+        for (int index = 0; index < size; ++index) {
+            insertSlot(ids[index], index);
+        }
+    }
+
+    private void insertSlot(int id, int index) {
+        int mask = slotIds.length - 1;
+        int slot = mix(id) & mask;
+        while (slotIndices[slot] != 0 && slotIds[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        slotIds[slot] = id;
+        slotIndices[slot] = index + 1;
+    }
+
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
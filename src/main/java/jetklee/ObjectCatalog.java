@@ -0,0 +1,237 @@
+package jetklee;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Catalog of all memory objects of the tree. Objects are searched by a substring of their ID, name, root object
+ * of their planes or their allocation site. The searched strings are indexed by their trigrams, so a query
+ * is answered by intersecting the lists of strings which contain the trigrams of the query instead of scanning
+ * the memory of the nodes. The nodes which add, change and delete an object are found in the lifetime index.
+ * The catalog is filled while the memory of the nodes is loaded.
+ */
+public class ObjectCatalog {
+    private static final int GRAM_LENGTH = 3;
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * Description of an object taken from the first of its states which was indexed.
+     */
+    public record Entry(int objID, String name, String rootObject, ExecutionState.AllocSite allocSite) {
+    }
+
+    private final ObjectLifetimeIndex lifetimeIndex;
+    private final HashMap<Integer, Entry> entries;
+    // distinct searched strings in lower case and the IDs of the objects described by each of them
+    private final HashMap<String, Integer> termIds;
+    private final ArrayList<String> terms;
+    private final ArrayList<int[]> termObjects;
+    private final ArrayList<Integer> termObjectCounts;
+    private final HashSet<Long> termObjectPairs;
+    // IDs of the strings containing each trigram in ascending order
+    private final HashMap<Long, int[]> gramTerms;
+    private final HashMap<Long, Integer> gramTermCounts;
+
+    /**
+     * @param lifetimeIndex index of the nodes which operate on the objects.
+     */
+    public ObjectCatalog(ObjectLifetimeIndex lifetimeIndex) {
+        this.lifetimeIndex = lifetimeIndex;
+        entries = new HashMap<>();
+        termIds = new HashMap<>();
+        terms = new ArrayList<>();
+        termObjects = new ArrayList<>();
+        termObjectCounts = new ArrayList<>();
+        termObjectPairs = new HashSet<>();
+        gramTerms = new HashMap<>();
+        gramTermCounts = new HashMap<>();
+    }
+
+    /**
+     * Records the objects added, changed and deleted by a node.
+     *
+     * @param memory memory diff of the node.
+     */
+    public synchronized void add(ExecutionState.Memory memory) {
+        for (ExecutionState.ObjectState addition : memory.additions()) {
+            add(addition);
+        }
+        for (ExecutionState.ObjectState change : memory.changes()) {
+            add(change);
+        }
+        for (ExecutionState.Deletion deletion : memory.deletions()) {
+            if (!entries.containsKey(deletion.objID())) {
+                entries.put(deletion.objID(), new Entry(deletion.objID(), null, null, null));
+                addTerm(Integer.toString(deletion.objID()), deletion.objID());
+            }
+        }
+    }
+
+    private void add(ExecutionState.ObjectState objectState) {
+        int objID = objectState.objID();
+        Entry entry = entries.get(objID);
+        if (entry == null || entry.name() == null) {
+            entries.put(objID, new Entry(objID, objectState.name(), getRootObject(objectState),
+                    objectState.allocSite()));
+        }
+        addTerm(Integer.toString(objID), objID);
+        addTerm(objectState.name(), objID);
+        if (objectState.segmentPlane() != null) {
+            addTerm(objectState.segmentPlane().rootObject(), objID);
+        }
+        if (objectState.offsetPlane() != null) {
+            addTerm(objectState.offsetPlane().rootObject(), objID);
+        }
+        ExecutionState.AllocSite allocSite = objectState.allocSite();
+        if (allocSite != null) {
+            addTerm(allocSite.scope(), objID);
+            addTerm(allocSite.name(), objID);
+            addTerm(allocSite.code(), objID);
+        }
+    }
+
+    private void addTerm(String term, int objID) {
+        if (term == null || term.isEmpty()) {
+            return;
+        }
+        term = term.toLowerCase();
+        Integer termId = termIds.get(term);
+        if (termId == null) {
+            termId = terms.size();
+            termIds.put(term, termId);
+            terms.add(term);
+            termObjects.add(new int[INITIAL_CAPACITY]);
+            termObjectCounts.add(0);
+            indexGrams(term, termId);
+        }
+        if (!termObjectPairs.add(((long) termId << 32) | (objID & 0xffffffffL))) {
+            return;
+        }
+        int count = termObjectCounts.get(termId);
+        termObjects.set(termId, append(termObjects.get(termId), count, objID));
+        termObjectCounts.set(termId, count + 1);
+    }
+
+    private void indexGrams(String term, int termId) {
+        for (int i = 0; i + GRAM_LENGTH <= term.length(); ++i) {
+            long gram = gram(term, i);
+            int count = gramTermCounts.getOrDefault(gram, 0);
+            int[] termList = gramTerms.get(gram);
+            // a trigram repeated in the string is recorded once, the string IDs are added in ascending order
+            if (count > 0 && termList[count - 1] == termId) {
+                continue;
+            }
+            gramTerms.put(gram, append(termList == null ? new int[INITIAL_CAPACITY] : termList, count, termId));
+            gramTermCounts.put(gram, count + 1);
+        }
+    }
+
+    /**
+     * @param query substring of the ID, name, root object or allocation site of the objects, case is ignored.
+     * @return objects matching the query in ascending order of their IDs.
+     */
+    public synchronized List<Entry> search(String query) {
+        List<Entry> result = new ArrayList<>();
+        query = query.toLowerCase();
+        if (query.isEmpty()) {
+            return result;
+        }
+        TreeSet<Integer> objIDs = new TreeSet<>();
+        for (int termId : findTerms(query)) {
+            int[] objects = termObjects.get(termId);
+            for (int i = 0; i < termObjectCounts.get(termId); ++i) {
+                objIDs.add(objects[i]);
+            }
+        }
+        for (int objID : objIDs) {
+            result.add(entries.get(objID));
+        }
+        return result;
+    }
+
+    /**
+     * @param objID ID of the object.
+     * @param type  operation on the object.
+     * @return nodes which perform the operation on the object.
+     */
+    public List<Node> getNodes(int objID, ExecutionState.OperationType type) {
+        return lifetimeIndex.getNodes(objID, type);
+    }
+
+    /**
+     * @return IDs of the strings containing the query.
+     */
+    private List<Integer> findTerms(String query) {
+        List<Integer> result = new ArrayList<>();
+        if (query.length() < GRAM_LENGTH) {
+            // short queries have no trigram, the distinct strings are scanned
+            for (int termId = 0; termId < terms.size(); ++termId) {
+                if (terms.get(termId).contains(query)) {
+                    result.add(termId);
+                }
+            }
+            return result;
+        }
+
+        // the candidates are the strings containing all trigrams of the query, starting from the rarest trigram
+        List<Long> grams = new ArrayList<>();
+        for (int i = 0; i + GRAM_LENGTH <= query.length(); ++i) {
+            long gram = gram(query, i);
+            if (!gramTermCounts.containsKey(gram)) {
+                return result;
+            }
+            grams.add(gram);
+        }
+        grams.sort((a, b) -> Integer.compare(gramTermCounts.get(a), gramTermCounts.get(b)));
+        int[] candidates = Arrays.copyOf(gramTerms.get(grams.get(0)), gramTermCounts.get(grams.get(0)));
+        int candidateCount = candidates.length;
+        for (int g = 1; g < grams.size() && candidateCount > 0; ++g) {
+            int[] termList = gramTerms.get(grams.get(g));
+            int termCount = gramTermCounts.get(grams.get(g));
+            int kept = 0;
+            for (int i = 0; i < candidateCount; ++i) {
+                if (Arrays.binarySearch(termList, 0, termCount, candidates[i]) >= 0) {
+                    candidates[kept++] = candidates[i];
+                }
+            }
+            candidateCount = kept;
+        }
+        // trigrams may be present at positions which do not form the query
+        for (int i = 0; i < candidateCount; ++i) {
+            if (terms.get(candidates[i]).contains(query)) {
+                result.add(candidates[i]);
+            }
+        }
+        return result;
+    }
+
+    private static long gram(String string, int start) {
+        long gram = 0;
+        for (int i = start; i < start + GRAM_LENGTH; ++i) {
+            gram = (gram << 16) | string.charAt(i);
+        }
+        return gram;
+    }
+
+    private static String getRootObject(ExecutionState.ObjectState objectState) {
+        if (objectState.segmentPlane() != null) {
+            return objectState.segmentPlane().rootObject();
+        }
+        if (objectState.offsetPlane() != null) {
+            return objectState.offsetPlane().rootObject();
+        }
+        return null;
+    }
+
+    private static int[] append(int[] array, int count, int value) {
+        if (count == array.length) {
+            array = Arrays.copyOf(array, 2 * count);
+        }
+        array[count] = value;
+        return array;
+    }
+}
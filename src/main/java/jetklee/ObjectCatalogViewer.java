@@ -0,0 +1,150 @@
+package jetklee;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static jetklee.Styles.BACKGROUND_COLOR;
+import static jetklee.Styles.DELETIONS_COLOR;
+
+/**
+ * Window for searching the memory objects of the whole tree. Nodes which add, change or delete the selected object
+ * are listed, clicking one of them jumps to it.
+ */
+public class ObjectCatalogViewer extends JFrame {
+    private static final int MAX_RESULTS = 1000;
+    private static final String[] COLUMNS = {"object", "name", "root object", "scope", "allocation", "code"};
+
+    private final ObjectCatalog catalog;
+    private final Consumer<Node> jumpToNode;
+    private final JTextField searchField;
+    private final JTable resultsTable;
+    private final JLabel resultsLabel;
+    private final DefaultListModel<String> nodesModel;
+    private final JList<String> nodesList;
+    private List<ObjectCatalog.Entry> results;
+    private List<Node> nodes;
+
+    /**
+     * @param catalog    catalog of the objects of the loaded tree.
+     * @param jumpToNode called with the node clicked in the list of nodes.
+     */
+    public ObjectCatalogViewer(ObjectCatalog catalog, Consumer<Node> jumpToNode) {
+        super("Object Catalog");
+        this.catalog = catalog;
+        this.jumpToNode = jumpToNode;
+        results = new ArrayList<>();
+        nodes = new ArrayList<>();
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        setSize(900, 500);
+
+        searchField = new JTextField();
+        searchField.setToolTipText("Substring of object ID, name, root object or allocation site");
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                search();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                search();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                search();
+            }
+        });
+        resultsLabel = new JLabel(" ");
+
+        resultsTable = new JTable();
+        resultsTable.setDefaultEditor(Object.class, null);
+        resultsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        resultsTable.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                showNodes();
+            }
+        });
+
+        nodesModel = new DefaultListModel<>();
+        nodesList = new JList<>(nodesModel);
+        nodesList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        nodesList.addListSelectionListener(e -> {
+            int index = nodesList.getSelectedIndex();
+            if (!e.getValueIsAdjusting() && index >= 0) {
+                this.jumpToNode.accept(nodes.get(index));
+            }
+        });
+
+        JPanel searchPanel = new JPanel(new BorderLayout());
+        searchPanel.add(searchField, BorderLayout.CENTER);
+        searchPanel.add(resultsLabel, BorderLayout.SOUTH);
+
+        JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, new JScrollPane(resultsTable),
+                new JScrollPane(nodesList));
+        splitPane.setResizeWeight(0.75);
+
+        add(searchPanel, BorderLayout.NORTH);
+        add(splitPane, BorderLayout.CENTER);
+    }
+
+    /**
+     * Displays the objects matching the text in the search field, at most {@link #MAX_RESULTS} of them.
+     */
+    private void search() {
+        String query = searchField.getText().trim();
+        results = catalog.search(query);
+        int shown = Math.min(results.size(), MAX_RESULTS);
+
+        Object[][] data = new Object[shown][COLUMNS.length];
+        for (int i = 0; i < shown; ++i) {
+            ObjectCatalog.Entry entry = results.get(i);
+            ExecutionState.AllocSite allocSite = entry.allocSite();
+            data[i] = new Object[]{entry.objID(), valueOrEmpty(entry.name()), valueOrEmpty(entry.rootObject()),
+                    allocSite == null ? "" : valueOrEmpty(allocSite.scope()),
+                    allocSite == null ? "" : valueOrEmpty(allocSite.name()),
+                    allocSite == null ? "" : valueOrEmpty(allocSite.code())};
+        }
+        resultsTable.setModel(new DefaultTableModel(data, COLUMNS));
+        nodes = new ArrayList<>();
+        nodesModel.clear();
+
+        if (query.isEmpty()) {
+            resultsLabel.setText(" ");
+        } else if (shown < results.size()) {
+            resultsLabel.setText(results.size() + " objects, first " + shown + " shown");
+        } else {
+            resultsLabel.setText(results.size() + " objects");
+        }
+        searchField.setBackground(!query.isEmpty() && results.isEmpty() ? DELETIONS_COLOR : BACKGROUND_COLOR);
+    }
+
+    /**
+     * Lists the nodes which add, change and delete the selected object.
+     */
+    private void showNodes() {
+        nodes = new ArrayList<>();
+        nodesModel.clear();
+        int row = resultsTable.getSelectedRow();
+        if (row < 0) {
+            return;
+        }
+        int objID = results.get(row).objID();
+        for (ExecutionState.OperationType type : ExecutionState.OperationType.values()) {
+            for (Node node : catalog.getNodes(objID, type)) {
+                nodes.add(node);
+                nodesModel.addElement(type + ": node " + node.getId());
+            }
+        }
+    }
+
+    private static String valueOrEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
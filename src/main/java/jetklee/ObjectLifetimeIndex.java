@@ -0,0 +1,278 @@
+package jetklee;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Index of the nodes which add, change and delete each memory object. The last state of an object before a node
+ * is found among the nodes which add or change the object, instead of scanning the memory of all ancestors.
+ * Ancestors are recognized by preorder numbers of the nodes, which are recomputed after the structure of the tree
+ * changes. The index is filled while the memory of the nodes is loaded.
+ */
+public class ObjectLifetimeIndex {
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * Nodes which operate on one object. The writing nodes (additions and changes) are additionally kept sorted
+     * by the preorder number together with the position of the nearest writing ancestor of each of them.
+     */
+    private static final class Lifetime {
+        private int[] additions = new int[INITIAL_CAPACITY];
+        private int additionCount;
+        private int[] changes = new int[INITIAL_CAPACITY];
+        private int changeCount;
+        private int[] deletions = new int[INITIAL_CAPACITY];
+        private int deletionCount;
+        private int[] sortedWriters;
+        private int[] writerAncestors;
+        private int sortedOrderVersion = -1;
+    }
+
+    private final NodeTable nodes;
+    private final HashMap<Integer, Lifetime> lifetimes;
+    // preorder number of each node and the preorder number following its subtree
+    private int[] preorder;
+    private int[] subtreeEnd;
+    private int orderVersion;
+
+    /**
+     * @param nodes nodes of the indexed tree.
+     */
+    public ObjectLifetimeIndex(NodeTable nodes) {
+        this.nodes = nodes;
+        lifetimes = new HashMap<>();
+        preorder = null;
+        subtreeEnd = null;
+        orderVersion = 0;
+    }
+
+    /**
+     * Records the objects added, changed and deleted by the node.
+     *
+     * @param node   index of the node.
+     * @param memory memory diff of the node.
+     */
+    public synchronized void add(int node, ExecutionState.Memory memory) {
+        for (ExecutionState.ObjectState addition : memory.additions()) {
+            Lifetime lifetime = lifetimes.computeIfAbsent(addition.objID(), objID -> new Lifetime());
+            lifetime.additions = append(lifetime.additions, lifetime.additionCount++, node);
+            lifetime.sortedOrderVersion = -1;
+        }
+        for (ExecutionState.ObjectState change : memory.changes()) {
+            Lifetime lifetime = lifetimes.computeIfAbsent(change.objID(), objID -> new Lifetime());
+            lifetime.changes = append(lifetime.changes, lifetime.changeCount++, node);
+            lifetime.sortedOrderVersion = -1;
+        }
+        for (ExecutionState.Deletion deletion : memory.deletions()) {
+            Lifetime lifetime = lifetimes.computeIfAbsent(deletion.objID(), objID -> new Lifetime());
+            lifetime.deletions = append(lifetime.deletions, lifetime.deletionCount++, node);
+        }
+    }
+
+    /**
+     * Invalidates the preorder numbers, called when an edge is inserted into the tree.
+     */
+    public synchronized void structureChanged() {
+        preorder = null;
+    }
+
+    /**
+     * @param objID ID of the object.
+     * @param type  operation on the object.
+     * @return nodes which perform the operation on the object in the order in which they were indexed.
+     */
+    public synchronized List<Node> getNodes(int objID, ExecutionState.OperationType type) {
+        Lifetime lifetime = lifetimes.get(objID);
+        List<Node> result = new ArrayList<>();
+        if (lifetime == null) {
+            return result;
+        }
+        int[] indices = switch (type) {
+            case ADDITION -> Arrays.copyOf(lifetime.additions, lifetime.additionCount);
+            case CHANGE -> Arrays.copyOf(lifetime.changes, lifetime.changeCount);
+            case DELETION -> Arrays.copyOf(lifetime.deletions, lifetime.deletionCount);
+        };
+        for (int index : indices) {
+            result.add(nodes.node(index));
+        }
+        return result;
+    }
+
+    /**
+     * Finds the nearest node on the path from the root to the given node (inclusive) which adds or changes
+     * the object and returns the object state recorded by it.
+     *
+     * @param node  node of the indexed tree.
+     * @param objID ID of the object.
+     * @return the addition or the change of the object or null if the node is not from the indexed tree
+     * or no node on its path writes the object.
+     */
+    public synchronized ExecutionState.ObjectState findLastState(Node node, int objID) {
+        int index = node.getIndex();
+        Lifetime lifetime = lifetimes.get(objID);
+        if (!isIndexed(node) || lifetime == null) {
+            return null;
+        }
+        int position = findLastWriter(lifetime, index);
+        return position < 0 ? null : findObjectState(lifetime.sortedWriters[position], objID);
+    }
+
+    /**
+     * @param node  node of the indexed tree.
+     * @param objID ID of the object.
+     * @return nodes on the path from the root to the given node (inclusive) which add or change the object,
+     * the nearest one first, or null if the node is not from the indexed tree.
+     */
+    public synchronized List<Node> getWritingAncestors(Node node, int objID) {
+        if (!isIndexed(node)) {
+            return null;
+        }
+        List<Node> result = new ArrayList<>();
+        Lifetime lifetime = lifetimes.get(objID);
+        if (lifetime == null) {
+            return result;
+        }
+        for (int position = findLastWriter(lifetime, node.getIndex()); position >= 0;
+             position = lifetime.writerAncestors[position]) {
+            Node writer = nodes.node(lifetime.sortedWriters[position]);
+            // a node which both adds and changes the object is listed once
+            if (result.isEmpty() || !result.get(result.size() - 1).equals(writer)) {
+                result.add(writer);
+            }
+        }
+        return result;
+    }
+
+    private boolean isIndexed(Node node) {
+        int index = node.getIndex();
+        return index < nodes.size() && nodes.node(index).equals(node);
+    }
+
+    /**
+     * @return position of the nearest writing ancestor of the node among the sorted writers or -1.
+     */
+    private int findLastWriter(Lifetime lifetime, int index) {
+        computeOrder();
+        sortWriters(lifetime);
+
+        // the last writer in preorder which does not follow the node, it is an ancestor or lies in a subtree
+        // of an ancestor left of the node, whose nearest writing ancestor is then checked
+        int[] writers = lifetime.sortedWriters;
+        int low = 0;
+        int high = writers.length - 1;
+        int position = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (preorder[writers[middle]] <= preorder[index]) {
+                position = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        while (position >= 0 && !isAncestor(writers[position], index)) {
+            position = lifetime.writerAncestors[position];
+        }
+        return position;
+    }
+
+    private boolean isAncestor(int ancestor, int node) {
+        return preorder[ancestor] <= preorder[node] && preorder[node] < subtreeEnd[ancestor];
+    }
+
+    private ExecutionState.ObjectState findObjectState(int node, int objID) {
+        ExecutionState.Memory memory = nodes.getExecutionState(node).getMemory();
+        for (ExecutionState.ObjectState addition : memory.additions()) {
+            if (addition.objID() == objID) {
+                return addition;
+            }
+        }
+        for (ExecutionState.ObjectState change : memory.changes()) {
+            if (change.objID() == objID) {
+                return change;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Numbers the nodes in preorder, nodes without a parent are the roots of the traversal.
+     */
+    private void computeOrder() {
+        if (preorder != null && preorder.length == nodes.size()) {
+            return;
+        }
+        int size = nodes.size();
+        preorder = new int[size];
+        subtreeEnd = new int[size];
+        int[] stack = new int[size];
+        boolean[] expanded = new boolean[size];
+        int counter = 0;
+
+        for (int root = 0; root < size; ++root) {
+            if (nodes.getParent(root) != NodeTable.NONE) {
+                continue;
+            }
+            int top = 0;
+            stack[top++] = root;
+            while (top > 0) {
+                int node = stack[top - 1];
+                if (expanded[node]) {
+                    subtreeEnd[node] = counter;
+                    --top;
+                    continue;
+                }
+                expanded[node] = true;
+                preorder[node] = counter++;
+                if (nodes.getRight(node) != NodeTable.NONE) {
+                    stack[top++] = nodes.getRight(node);
+                }
+                if (nodes.getLeft(node) != NodeTable.NONE) {
+                    stack[top++] = nodes.getLeft(node);
+                }
+            }
+        }
+        ++orderVersion;
+    }
+
+    private void sortWriters(Lifetime lifetime) {
+        if (lifetime.sortedOrderVersion == orderVersion) {
+            return;
+        }
+        int count = lifetime.additionCount + lifetime.changeCount;
+        long[] keys = new long[count];
+        for (int i = 0; i < lifetime.additionCount; ++i) {
+            keys[i] = ((long) preorder[lifetime.additions[i]] << 32) | lifetime.additions[i];
+        }
+        for (int i = 0; i < lifetime.changeCount; ++i) {
+            keys[lifetime.additionCount + i] = ((long) preorder[lifetime.changes[i]] << 32) | lifetime.changes[i];
+        }
+        Arrays.sort(keys);
+
+        int[] writers = new int[count];
+        int[] ancestors = new int[count];
+        int[] stack = new int[count];
+        int top = 0;
+        for (int i = 0; i < count; ++i) {
+            writers[i] = (int) keys[i];
+            while (top > 0 && !isAncestor(writers[stack[top - 1]], writers[i])) {
+                --top;
+            }
+            ancestors[i] = top > 0 ? stack[top - 1] : -1;
+            stack[top++] = i;
+        }
+        lifetime.sortedWriters = writers;
+        lifetime.writerAncestors = ancestors;
+        lifetime.sortedOrderVersion = orderVersion;
+    }
+
+    private static int[] append(int[] array, int count, int value) {
+        if (count == array.length) {
+            array = Arrays.copyOf(array, 2 * count);
+        }
+        array[count] = value;
+        return array;
+    }
+}
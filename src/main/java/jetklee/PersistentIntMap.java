@@ -0,0 +1,222 @@
+package jetklee;
+
+import java.util.ArrayList;
+
+/**
+ * Immutable map from non-negative int keys to values. Updates return a new map which shares all untouched parts
+ * with the original one, so a map derived by a few updates costs only the updated paths. Implemented as a bitmapped
+ * trie over the bits of the key (5 bits per level), so the entries are iterated in ascending order of the keys.
+ *
+ * @param <V> type of the values.
+ */
+public final class PersistentIntMap<V> {
+    /**
+     * Receives entries of the map in ascending order of the keys.
+     */
+    public interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final PersistentIntMap<?> EMPTY = new PersistentIntMap<>(null, 0, 0);
+
+    /**
+     * Inner node of the trie. Slots hold child nodes, or values at the lowest level.
+     */
+    private record TrieNode(int bitmap, Object[] slots) {
+    }
+
+    private final TrieNode root;
+    // shift of the root level, keys must be lower than 1 << (rootShift + BITS)
+    private final int rootShift;
+    private final int size;
+
+    private PersistentIntMap(TrieNode root, int rootShift, int size) {
+        this.root = root;
+        this.rootShift = rootShift;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param key key of the entry.
+     * @return value of the entry or null if there is no such entry.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key < 0 || !fits(key, rootShift)) {
+            return null;
+        }
+        TrieNode node = root;
+        for (int shift = rootShift; node != null; shift -= BITS) {
+            int bit = 1 << ((key >>> shift) & MASK);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (shift == 0) {
+                return (V) slot;
+            }
+            node = (TrieNode) slot;
+        }
+        return null;
+    }
+
+    /**
+     * @param key   non-negative key of the entry.
+     * @param value value of the entry, not null.
+     * @return map with the entry added or replaced.
+     */
+    public PersistentIntMap<V> put(int key, V value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Negative key: " + key);
+        }
+        TrieNode newRoot = root;
+        int newShift = rootShift;
+        while (!fits(key, newShift)) {
+            // add levels above the root until the key fits
+            newRoot = newRoot == null ? null : new TrieNode(1, new Object[]{newRoot});
+            newShift += BITS;
+        }
+        boolean added = get(key) == null;
+        newRoot = put(newRoot, newShift, key, value);
+        return new PersistentIntMap<>(newRoot, newShift, added ? size + 1 : size);
+    }
+
+    /**
+     * @param key key of the entry.
+     * @return map without the entry.
+     */
+    public PersistentIntMap<V> remove(int key) {
+        if (get(key) == null) {
+            return this;
+        }
+        TrieNode newRoot = remove(root, rootShift, key);
+        return newRoot == null ? empty() : new PersistentIntMap<>(newRoot, rootShift, size - 1);
+    }
+
+    /**
+     * Passes all entries to the consumer in ascending order of the keys.
+     *
+     * @param consumer receives the entries.
+     */
+    public void forEach(EntryConsumer<V> consumer) {
+        if (root != null) {
+            forEach(root, rootShift, 0, consumer);
+        }
+    }
+
+    /**
+     * @return values in ascending order of their keys.
+     */
+    public ArrayList<V> values() {
+        ArrayList<V> values = new ArrayList<>(size);
+        forEach((key, value) -> values.add(value));
+        return values;
+    }
+
+    private static boolean fits(int key, int shift) {
+        return shift + BITS >= Integer.SIZE || (key >>> (shift + BITS)) == 0;
+    }
+
+    private static TrieNode put(TrieNode node, int shift, int key, Object value) {
+        int bit = 1 << ((key >>> shift) & MASK);
+        int bitmap = node == null ? 0 : node.bitmap;
+        Object[] slots = node == null ? new Object[0] : node.slots;
+        int position = Integer.bitCount(bitmap & (bit - 1));
+
+        if ((bitmap & bit) != 0) {
+            Object[] newSlots = slots.clone();
+            newSlots[position] = shift == 0 ? value : put((TrieNode) slots[position], shift - BITS, key, value);
+            return new TrieNode(bitmap, newSlots);
+        }
+        Object[] newSlots = new Object[slots.length + 1];
+        System.arraycopy(slots, 0, newSlots, 0, position);
+        System.arraycopy(slots, position, newSlots, position + 1, slots.length - position);
+        newSlots[position] = shift == 0 ? value : put(null, shift - BITS, key, value);
+        return new TrieNode(bitmap | bit, newSlots);
+    }
+
+    private static TrieNode remove(TrieNode node, int shift, int key) {
+        int bit = 1 << ((key >>> shift) & MASK);
+        int position = Integer.bitCount(node.bitmap & (bit - 1));
+        TrieNode child = shift == 0 ? null : remove((TrieNode) node.slots[position], shift - BITS, key);
+
+        if (child != null) {
+            Object[] newSlots = node.slots.clone();
+            newSlots[position] = child;
+            return new TrieNode(node.bitmap, newSlots);
+        }
+        if (node.slots.length == 1) {
+            return null;
+        }
+        Object[] newSlots = new Object[node.slots.length - 1];
+        System.arraycopy(node.slots, 0, newSlots, 0, position);
+        System.arraycopy(node.slots, position + 1, newSlots, position, newSlots.length - position);
+        return new TrieNode(node.bitmap & ~bit, newSlots);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void forEach(TrieNode node, int shift, int prefix, EntryConsumer<V> consumer) {
+        int bitmap = node.bitmap;
+        for (int position = 0; bitmap != 0; ++position) {
+            int index = Integer.numberOfTrailingZeros(bitmap);
+            bitmap &= bitmap - 1;
+            int key = prefix | (index << shift);
+            if (shift == 0) {
+                consumer.accept(key, (V) node.slots[position]);
+            } else {
+                forEach((TrieNode) node.slots[position], shift - BITS, key, consumer);
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PersistentIntMap<?> other) || size != other.size) {
+            return false;
+        }
+        boolean[] equal = {true};
+        forEach((key, value) -> {
+            if (equal[0] && !value.equals(other.get(key))) {
+                equal[0] = false;
+            }
+        });
+        return equal[0];
+    }
+
+    @Override
+    public int hashCode() {
+        int[] hash = {0};
+        forEach((key, value) -> hash[0] += key ^ value.hashCode());
+        return hash[0];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(key).append('=').append(value);
+        });
+        return builder.append('}').toString();
+    }
+}
@@ -7,6 +7,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static jetklee.Styles.*;
@@ -16,6 +17,9 @@ import static jetklee.Styles.*;
  */
 public class PlanePanel extends JPanel {
     private ExecutionState.Plane currentPlane;
+    // node and object whose plane is displayed, the history of a byte is searched on the node's path
+    private Node historyNode;
+    private int historyObjID;
     private boolean isColorful;
     private JCheckBox sortByOffsetCheckBox;
     private JPanel concretePanel;
@@ -23,6 +27,7 @@ public class PlanePanel extends JPanel {
     private JPanel updatePanel;
     private final String[] CONCRETE_COLUMNS = {"index", "value", "isConcrete"};
     private final String[] SYMBOLIC_COLUMNS = {"index", "value"};
+    private final String[] HISTORY_COLUMNS = {"node", "operation", "value", "isConcrete", "symbolic"};
 
     public PlanePanel() {
         super(new BorderLayout());
@@ -107,7 +112,8 @@ public class PlanePanel extends JPanel {
         if (sortByOffsetCheckBox.isSelected()) {
             sortByOffset(byteRows);
         }
-        JTable byteTable = isConcrete ? createConcreteTable(byteRows, byteColumns) : createSymbolicTable(byteRows, byteColumns);
+        JTable byteTable = isConcrete ? createConcreteTable(byteRows, byteColumns)
+                : createSymbolicTable(byteRows, byteColumns, true);
 
         bytePanel.removeAll();
         bytePanel.add(new JScrollPane(byteTable));
@@ -124,10 +130,10 @@ public class PlanePanel extends JPanel {
             data[i][Column.VALUE.ordinal()] = row.getValue();
             data[i][Column.MASK.ordinal()] = row.getMask();
         }
-        return createTable(data, columns, rows);
+        return createTable(data, columns, rows, true);
     }
 
-    private JTable createTable(Object[][] data, String[] columns, ArrayList<TableRow> rows) {
+    private JTable createTable(Object[][] data, String[] columns, ArrayList<TableRow> rows, boolean hasByteIndices) {
         JTable table = new JTable(data, columns) {
             @Override
             public Component prepareRenderer(TableCellRenderer renderer, int row, int column) {
@@ -137,11 +143,11 @@ public class PlanePanel extends JPanel {
                 return component;
             }
         };
-        table.addMouseListener(createMouseAdapter(table));
+        table.addMouseListener(createMouseAdapter(table, hasByteIndices));
         return table;
     }
 
-    private JTable createSymbolicTable(ArrayList<TableRow> rows, String[] columns) {
+    private JTable createSymbolicTable(ArrayList<TableRow> rows, String[] columns, boolean hasByteIndices) {
         Object[][] data = new Object[rows.size()][columns.length];
 
         for (int i = 0; i < rows.size(); ++i) {
@@ -150,31 +156,45 @@ public class PlanePanel extends JPanel {
             data[i][Column.VALUE.ordinal()] = row.getValue();
         }
 
-        return createTable(data, columns, rows);
+        return createTable(data, columns, rows, hasByteIndices);
     }
 
-    private MouseAdapter createMouseAdapter(JTable table) {
+    private MouseAdapter createMouseAdapter(JTable table, boolean hasByteIndices) {
         return new java.awt.event.MouseAdapter() {
             @Override
             public void mouseClicked(java.awt.event.MouseEvent e) {
                 int row = table.rowAtPoint(e.getPoint());
                 int column = table.columnAtPoint(e.getPoint());
+                if (row < 0 || column < 0) {
+                    return;
+                }
+                if (SwingUtilities.isRightMouseButton(e)) {
+                    if (hasByteIndices && historyNode != null && currentPlane != null) {
+                        int index = Integer.parseInt(table.getValueAt(row, Column.INDEX.ordinal()).toString());
+                        showHistoryMenu(table, e.getX(), e.getY(), index);
+                    }
+                    return;
+                }
                 Object value = table.getValueAt(row, column);
                 showPopup(value.toString());
             }
         };
     }
 
+    private void showHistoryMenu(JTable table, int x, int y, int index) {
+        JPopupMenu menu = new JPopupMenu();
+        JMenuItem historyItem = new JMenuItem("Byte History");
+        historyItem.addActionListener(e -> showHistory(historyNode, historyObjID, currentPlane.type(), index));
+        menu.add(historyItem);
+        menu.show(table, x, y);
+    }
+
     private ArrayList<TableRow> getByteRows(ExecutionState.ByteMap changes, Color color, ExecutionState.ByteMap mask,
                                             boolean isConcrete) {
         ArrayList<TableRow> byteRows = new ArrayList<>();
 
-        for (String byteValue : changes.keySet()) {
-            ArrayList<Integer> indices = changes.get(byteValue);
-            for (int byteIndex : indices) {
-                byteRows.add(new TableRow(color, Integer.toString(byteIndex), byteValue, findMask(byteIndex, mask), isConcrete));
-            }
-        }
+        changes.forEach((byteIndex, byteValue) ->
+                byteRows.add(new TableRow(color, Integer.toString(byteIndex), byteValue, mask.get(byteIndex), isConcrete)));
 
         return byteRows;
     }
@@ -196,7 +216,7 @@ public class PlanePanel extends JPanel {
             sortByOffset(updateRows);
         }
 
-        JTable updateTable = createSymbolicTable(updateRows, SYMBOLIC_COLUMNS);
+        JTable updateTable = createSymbolicTable(updateRows, SYMBOLIC_COLUMNS, false);
 
         updatePanel.removeAll();
         updatePanel.add(new JScrollPane(updateTable), BorderLayout.CENTER);
@@ -204,6 +224,17 @@ public class PlanePanel extends JPanel {
         updatePanel.repaint();
     }
 
+    /**
+     * Sets the object whose planes are displayed next, so the history of their bytes can be shown.
+     *
+     * @param node  the node whose memory is displayed.
+     * @param objID ID of the object.
+     */
+    public void setHistorySource(Node node, int objID) {
+        historyNode = node;
+        historyObjID = objID;
+    }
+
     public void updateTables(ExecutionState.Plane plane, boolean isColorful) {
         this.isColorful = isColorful;
         this.currentPlane = plane;
@@ -212,13 +243,52 @@ public class PlanePanel extends JPanel {
         updateUpdatesTable(isColorful);
     }
 
-    private String findMask(int byteIndex, ExecutionState.ByteMap mask) {
-        for (Map.Entry<String, ArrayList<Integer>> entry : mask.entrySet()) {
-            if (entry.getValue().contains(byteIndex)) {
-                return entry.getKey();
+    /**
+     * Shows the writes of the byte along the path to the node in a new window. The history is searched
+     * on a background thread.
+     */
+    private void showHistory(Node node, int objID, ExecutionState.Plane.PlaneType planeType, int index) {
+        JFrame popup = new JFrame("History of byte " + index + " of object " + objID + " (" + planeType + ")");
+        popup.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        popup.setSize(600, 300);
+        popup.setResizable(true);
+        popup.add(new JLabel("Searching..."));
+        popup.setLocationRelativeTo(this);
+        popup.setVisible(true);
+
+        new SwingWorker<List<ByteHistory.ByteWrite>, Void>() {
+            @Override
+            protected List<ByteHistory.ByteWrite> doInBackground() {
+                return ByteHistory.getHistory(node, objID, planeType, index);
+            }
+
+            @Override
+            protected void done() {
+                List<ByteHistory.ByteWrite> history;
+                try {
+                    history = get();
+                } catch (Exception e) {
+                    popup.dispose();
+                    JOptionPane.showMessageDialog(PlanePanel.this, "Byte History has FAILED: " + e);
+                    return;
+                }
+                Object[][] data = new Object[history.size()][HISTORY_COLUMNS.length];
+                for (int i = 0; i < history.size(); ++i) {
+                    ByteHistory.ByteWrite write = history.get(i);
+                    data[i][0] = write.node().getId();
+                    data[i][1] = write.type();
+                    data[i][2] = write.concreteValue() == null ? "" : write.concreteValue();
+                    data[i][3] = write.concreteMask() == null ? "" : Boolean.toString(!write.concreteMask().equals("0"));
+                    data[i][4] = write.symbolicValue() == null ? "" : write.symbolicValue();
+                }
+                JTable table = new JTable(data, HISTORY_COLUMNS);
+                table.setDefaultEditor(Object.class, null);
+                popup.getContentPane().removeAll();
+                popup.add(new JScrollPane(table));
+                popup.revalidate();
+                popup.repaint();
             }
-        }
-        return null;
+        }.execute();
     }
 
     private void showPopup(String value) {
@@ -8,6 +8,7 @@ import java.awt.event.*;
 import java.net.URL;
 import java.nio.file.Paths;
 import java.util.Collections;
+import java.util.concurrent.CancellationException;
 import java.io.File;
 import java.util.prefs.Preferences;
 
@@ -19,8 +20,10 @@ import static jetklee.Styles.DELETIONS_COLOR;
 /**
  * Represents whole application. Initializes and updates UI components.
  */
-public class ProgressExplorer implements ListSelectionListener, MouseWheelListener, MouseListener, ActionListener {
+public class ProgressExplorer implements ListSelectionListener, MouseWheelListener, MouseListener, ActionListener,
+        RecordingFollower.Listener, RecordingLoader.Listener, NodeDetailsLoader.Listener {
     private static final int ARGS_COUNT = 1;
+    private static final int PLAYBACK_PERIOD_MS = 100;
     private Tree tree;
     private TreeViewer treeViewer;
     private SourceLoader sourceLoader;
@@ -39,6 +42,13 @@ public class ProgressExplorer implements ListSelectionListener, MouseWheelListen
     private ContextViewer contextViewer;
     private JPopupMenu rightClickMenu;
     private JMenuBar menuBar;
+    private JCheckBoxMenuItem followMenuItem;
+    private JCheckBoxMenuItem playMenuItem;
+    private Timer playbackTimer;
+    private RecordingFollower follower;
+    private RecordingLoader loader;
+    private LoadingPanel loadingPanel;
+    private NodeDetailsLoader nodeDetailsLoader;
 
     public ProgressExplorer() {
         initializeSourceViewer();
@@ -47,6 +57,7 @@ public class ProgressExplorer implements ListSelectionListener, MouseWheelListen
         arrangePanels();
         createRightClickMenu();
         createOpenMenu();
+        playbackTimer = new Timer(PLAYBACK_PERIOD_MS, e -> playNextRound());
     }
 
     private void createOpenMenu() {
@@ -60,12 +71,51 @@ public class ProgressExplorer implements ListSelectionListener, MouseWheelListen
             }
         });
         fileMenu.add(openMenuItem);
+
+        followMenuItem = new JCheckBoxMenuItem("Follow Recording");
+        followMenuItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                updateFollower();
+            }
+        });
+        fileMenu.add(followMenuItem);
         menuBar.add(fileMenu);
+
+        JMenu viewMenu = new JMenu("View");
+        JMenuItem heapMenuItem = new JMenuItem("Heap Usage");
+        heapMenuItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showHeapUsage();
+            }
+        });
+        viewMenu.add(heapMenuItem);
+
+        JMenuItem catalogMenuItem = new JMenuItem("Object Catalog");
+        catalogMenuItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showObjectCatalog();
+            }
+        });
+        viewMenu.add(catalogMenuItem);
+
+        playMenuItem = new JCheckBoxMenuItem("Play Rounds");
+        playMenuItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                updatePlayback();
+            }
+        });
+        viewMenu.add(playMenuItem);
+        menuBar.add(viewMenu);
     }
 
     private void createRightClickMenu() {
         rightClickMenu = new JPopupMenu();
-        NodeAction[] nodeActions = new NodeAction[]{NodeAction.NODE_TO_C, NodeAction.NODE_TO_LL};
+        NodeAction[] nodeActions = new NodeAction[]{NodeAction.NODE_TO_C, NodeAction.NODE_TO_LL,
+                NodeAction.COMPARE};
         for (NodeAction nodeAction : nodeActions) {
             JMenuItem newItem = new JMenuItem(nodeAction.value);
             newItem.addActionListener(this);
@@ -88,8 +138,11 @@ public class ProgressExplorer implements ListSelectionListener, MouseWheelListen
         mainSplitPane.setResizeWeight(0.1);
         mainSplitPane.setDividerLocation(0.1);
 
+        loadingPanel = new LoadingPanel();
+
         rootPanel = new JPanel(new BorderLayout());
         rootPanel.add(mainSplitPane, BorderLayout.CENTER);
+        rootPanel.add(loadingPanel, BorderLayout.SOUTH);
     }
 
     private void initializeSourceViewer() {
@@ -124,6 +177,7 @@ public class ProgressExplorer implements ListSelectionListener, MouseWheelListen
         constraintsViewer = new ConstraintsViewer();
         memoryViewer = new MemoryViewer();
         contextViewer = new ContextViewer();
+        nodeDetailsLoader = new NodeDetailsLoader(this);
 
         nodeTabbedPane = new JTabbedPane(JTabbedPane.TOP);
         nodeTabbedPane.addTab("Context", contextViewer);
@@ -195,12 +249,155 @@ public class ProgressExplorer implements ListSelectionListener, MouseWheelListen
         }
     }
 
+    /**
+     * Shows how much of the heap is used, how much the deduplication of recording strings saves
+     * and how well the cache of complete memories works.
+     */
+    private void showHeapUsage() {
+        final double megabyte = 1024.0 * 1024.0;
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        StringPool pool = tree != null ? tree.getStringPool() : new StringPool();
+
+        String report = String.format("""
+                        Heap used: %.1f MB
+                        Heap committed: %.1f MB
+                        Heap maximum: %.1f MB
+
+                        Pooled strings: %d distinct of %d parsed
+                        Saved by the string pool: %.1f MB
+
+                        Complete memory cache: %s""",
+                used / megabyte, runtime.totalMemory() / megabyte, runtime.maxMemory() / megabyte,
+                pool.getDistinctCount(), pool.getLookupCount(), pool.getSavedBytes() / megabyte,
+                CompleteMemoryRetriever.getCache().getStatistics());
+        JOptionPane.showMessageDialog(rootPanel, report, "Heap Usage", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    /**
+     * Opens a window for searching the memory objects of the loaded tree.
+     */
+    private void showObjectCatalog() {
+        if (tree == null || tree.getObjectCatalog() == null) {
+            JOptionPane.showMessageDialog(rootPanel, "The object catalog is not available in the lazy memory mode.");
+            return;
+        }
+        ObjectCatalogViewer catalogViewer = new ObjectCatalogViewer(tree.getObjectCatalog(), this::jumpToNode);
+        catalogViewer.setLocationRelativeTo(rootPanel);
+        catalogViewer.setVisible(true);
+    }
+
+    /**
+     * Selects the node, displays the first round in which it is present if it is not visible in the selected one
+     * and scrolls the tree to it.
+     *
+     * @param node node to jump to.
+     */
+    private void jumpToNode(Node node) {
+        // the catalog window may belong to a tree which was replaced since
+        if (!node.equals(tree.getNodes().get(node.getId()))) {
+            return;
+        }
+        treeViewer.setSelectedNode(node);
+        if (!treeViewer.isSelectedVisible()) {
+            roundsList.setSelectedIndex(node.getStartRound());
+            roundsList.ensureIndexIsVisible(node.getStartRound());
+        }
+        treeViewer.scrollToNode(node);
+        displayNodePane(node);
+    }
+
+    /**
+     * Starts or stops following the loaded recording based on the state of the follow menu item.
+     */
+    private void updateFollower() {
+        if (follower != null) {
+            follower.stop();
+            follower = null;
+        }
+        if (!followMenuItem.isSelected() || tree.getRecordingDir() == null) {
+            return;
+        }
+        try {
+            follower = new RecordingFollower(tree, this);
+        } catch (Exception e) {
+            followMenuItem.setSelected(false);
+            JOptionPane.showMessageDialog(rootPanel, "Follow has FAILED: " + e);
+        }
+    }
+
+    /**
+     * Starts or stops the playback of the rounds based on the state of the play menu item. The playback starts
+     * from the selected round, or from the first one if the last round is selected.
+     */
+    private void updatePlayback() {
+        int roundCount = roundsList.getModel().getSize();
+        if (!playMenuItem.isSelected() || roundCount == 0) {
+            stopPlayback();
+            return;
+        }
+        if (roundsList.getSelectedIndex() < 0 || roundsList.getSelectedIndex() == roundCount - 1) {
+            roundsList.setSelectedIndex(0);
+            roundsList.ensureIndexIsVisible(0);
+        }
+        playbackTimer.start();
+    }
+
+    /**
+     * Selects the round after the selected one. At the last round the playback stops, unless the recording is
+     * followed, then new rounds are selected by {@link #roundsAppended(int)}.
+     */
+    private void playNextRound() {
+        int next = roundsList.getSelectedIndex() + 1;
+        if (next < roundsList.getModel().getSize()) {
+            roundsList.setSelectedIndex(next);
+            roundsList.ensureIndexIsVisible(next);
+        } else if (follower == null) {
+            stopPlayback();
+        }
+    }
+
+    private void stopPlayback() {
+        playbackTimer.stop();
+        playMenuItem.setSelected(false);
+    }
+
+    /**
+     * Adds rounds recorded after the tree was loaded. If the last round was selected, the new last round is
+     * selected instead, so the view keeps up with the recording.
+     *
+     * @param firstNewRound index of the first appended round.
+     */
+    @Override
+    public void roundsAppended(int firstNewRound) {
+        DefaultListModel<String> model = (DefaultListModel<String>) roundsList.getModel();
+        boolean followLast = roundsList.getSelectedIndex() < 0 || roundsList.getSelectedIndex() == model.getSize() - 1;
+
+        for (int i = model.getSize(); i < tree.getRounds().size(); ++i) {
+            model.addElement(tree.getRounds().get(i));
+        }
+        treeViewer.extend();
+
+        if (followLast && !model.isEmpty()) {
+            roundsList.setSelectedIndex(model.getSize() - 1);
+            roundsList.ensureIndexIsVisible(model.getSize() - 1);
+        }
+    }
+
+    @Override
+    public void followFailed(Exception e) {
+        follower = null;
+        followMenuItem.setSelected(false);
+        JOptionPane.showMessageDialog(rootPanel, "Follow has FAILED: " + e);
+    }
+
     private enum TabbedPane {
         TREE_PANE, C_PANE, LL_PANE;
     }
 
     private enum NodeAction {
-        NODE_INFO("Node Information"), NODE_TO_C("C"), NODE_TO_LL("LL");
+        NODE_INFO("Node Information"), NODE_TO_C("C"), NODE_TO_LL("LL"), COMPARE("Compare Memory With Previous");
         private final String value;
 
         NodeAction(String value) {
@@ -211,6 +408,7 @@ public class ProgressExplorer implements ListSelectionListener, MouseWheelListen
             return switch (actionStr) {
                 case "C" -> NODE_TO_C;
                 case "LL" -> NODE_TO_LL;
+                case "Compare Memory With Previous" -> COMPARE;
                 default -> throw new Exception("Unknown right click menu action: " + actionStr);
             };
         }
@@ -228,22 +426,51 @@ public class ProgressExplorer implements ListSelectionListener, MouseWheelListen
         treeViewer.setSelectedRound(roundsList.getSelectedIndex());
         treeViewer.updateArea();
 
+        if (!treeViewer.isSelectedVisible()) {
+            nodeDetailsLoader.cancel();
+        }
         nodeTabbedPane.setVisible(treeViewer.isSelectedVisible());
     }
 
     /**
-     * Loads process tree, c source code and ll source code.
+     * Starts loading of process tree, c source code and ll source code on a background thread.
+     * A load which is still running is cancelled.
      *
      * @param dir directory with the recorded data.
      */
     private void load(String dir) {
+        stopPlayback();
+        if (follower != null) {
+            follower.stop();
+            follower = null;
+        }
+        if (loader != null) {
+            loader.cancel(true);
+        }
+        loader = new RecordingLoader(dir, this);
+        loadingPanel.start(loader);
+        loader.execute();
+    }
+
+    /**
+     * Displays the loaded tree together with the source code. Memory of the nodes may still be loading.
+     *
+     * @param loader loader of the tree.
+     */
+    @Override
+    public void treeLoaded(RecordingLoader loader) {
+        if (loader != this.loader) {
+            return;
+        }
         try {
-            tree.load(dir);
-            sourceLoader.load(dir);
+            sourceLoader.load(loader.getDir());
         } catch (Exception e) {
             JOptionPane.showMessageDialog(rootPanel, "Load has FAILED: " + e);
-            return;
         }
+        tree = loader.getTree();
+        treeViewer.setTree(tree);
+
+        nodeDetailsLoader.cancel();
         nodeTabbedPane.setVisible(false);
         treeViewer.load();
         sourceC.setSourceCodeLines();
@@ -261,6 +488,35 @@ public class ProgressExplorer implements ListSelectionListener, MouseWheelListen
         roundsList.repaint();
     }
 
+    /**
+     * Finishes the load. Information about the selected node is displayed again, because its memory may have been
+     * missing while it was selected.
+     *
+     * @param loader loader of the tree.
+     * @param error  null if the loading succeeded, {@link CancellationException} if it was cancelled.
+     */
+    @Override
+    public void loadFinished(RecordingLoader loader, Exception error) {
+        if (loader != this.loader) {
+            return;
+        }
+        this.loader = null;
+        loadingPanel.stop();
+        if (error instanceof CancellationException) {
+            return;
+        }
+        if (error != null) {
+            JOptionPane.showMessageDialog(rootPanel, "Load has FAILED: " + error);
+            return;
+        }
+
+        Node selectedNode = treeViewer.getSelectedNode();
+        if (selectedNode != null && treeViewer.isSelectedVisible()) {
+            displayNodePane(selectedNode);
+        }
+        updateFollower();
+    }
+
     /**
      * Jumps to given tab and line corresponding to the node's execution state.
      *
@@ -276,27 +532,69 @@ public class ProgressExplorer implements ListSelectionListener, MouseWheelListen
     }
 
     /**
-     * Shows panel with information about node context, constraints and memory.
-     * Highlights lines of code given by node's execution state.
+     * Requests information about node context, constraints and memory. The information is prepared
+     * on a background thread and displayed by {@link #detailsLoaded(NodeDetailsLoader.NodeDetails)}.
      *
      * @param node the node for which information is displayed.
      */
     private void displayNodePane(Node node) {
-        // Display node pane only if node has execution state
-        // (if the execution was terminated early, the node may not have it)
-        if (node.getExecutionState().getMemory() == null) {
+        // Memory of a node is computed from its ancestors, so all of them must be loaded already
+        if (!tree.isMemoryLoaded() && !isMemoryAvailable(node)) {
+            nodeDetailsLoader.cancel();
             nodeTabbedPane.setVisible(false);
             return;
         }
-        contextViewer.displayContext(node.getExecutionState().getContext());
-        constraintsViewer.displayConstraints(node.getExecutionState().getConstraints());
-        memoryViewer.setupAndDisplayMemory(node, sourceLL);
+        nodeDetailsLoader.request(node);
+    }
+
+    /**
+     * Shows panel with information about node context, constraints and memory.
+     * Highlights lines of code given by node's execution state.
+     *
+     * @param details prepared information about the node.
+     */
+    @Override
+    public void detailsLoaded(NodeDetailsLoader.NodeDetails details) {
+        Node node = details.node();
+        contextViewer.displayContextHtml(details.contextHtml());
+        constraintsViewer.displayConstraints(details.constraints(), details.constraintsHtml());
+        memoryViewer.setupAndDisplayMemory(node, sourceLL, details.memory(), details.objects());
 
         nodeTabbedPane.setVisible(true);
         splitPane.setDividerLocation(0.5);
         selectCodeLine(node, TabbedPane.TREE_PANE);
     }
 
+    /**
+     * Hides the node pane, the node has no execution state
+     * (if the execution was terminated early, the node may not have it).
+     *
+     * @param node the node for which information was requested.
+     */
+    @Override
+    public void detailsMissing(Node node) {
+        nodeTabbedPane.setVisible(false);
+    }
+
+    @Override
+    public void detailsFailed(Node node, Exception e) {
+        nodeTabbedPane.setVisible(false);
+        JOptionPane.showMessageDialog(rootPanel, "Load has FAILED: " + e);
+    }
+
+    /**
+     * @param node the node whose memory is checked.
+     * @return true if memory of the node and all its ancestors is loaded.
+     */
+    private boolean isMemoryAvailable(Node node) {
+        for (Node n = node; n != null; n = n.getParent()) {
+            if (!n.getExecutionState().hasNodeInfo()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Performs action based on item selected in the right click popup menu.
      *
@@ -315,13 +613,33 @@ public class ProgressExplorer implements ListSelectionListener, MouseWheelListen
             case NODE_INFO -> displayNodePane(node);
             case NODE_TO_C -> selectCodeLine(node, TabbedPane.C_PANE);
             case NODE_TO_LL -> selectCodeLine(node, TabbedPane.LL_PANE);
+            case COMPARE -> compareWithPrevious(node);
+        }
+    }
+
+    /**
+     * Compares memory of the node with memory of the node which was selected before it.
+     *
+     * @param node the node selected by the right click.
+     */
+    private void compareWithPrevious(Node node) {
+        Node previous = (Node) rightClickMenu.getClientProperty("previous");
+        if (previous == null || previous.equals(node)) {
+            JOptionPane.showMessageDialog(rootPanel, "Select another node first, then right click this node.");
+            return;
+        }
+        if (!isMemoryAvailable(previous) || !isMemoryAvailable(node)) {
+            JOptionPane.showMessageDialog(rootPanel, "Memory of the nodes is not loaded yet.");
+            return;
         }
+        MemoryComparisonViewer.showComparison(rootPanel, previous, node);
     }
 
     @Override
     public void mouseClicked(MouseEvent e) {
         Node node = treeViewer.onMouseClicked(e.getX(), e.getY());
         if (node == null && SwingUtilities.isLeftMouseButton(e)) {
+            nodeDetailsLoader.cancel();
             if (nodeTabbedPane.isVisible()) {
                 nodeTabbedPane.setVisible(false);
                 treeViewer.setSelectedNode(null);
@@ -336,6 +654,7 @@ public class ProgressExplorer implements ListSelectionListener, MouseWheelListen
         Node node = treeViewer.onMouseClicked(e.getX(), e.getY());
         if (node != null) {
             if (SwingUtilities.isRightMouseButton(e)) {
+                rightClickMenu.putClientProperty("previous", treeViewer.getSelectedNode());
                 rightClickMenu.putClientProperty("node", node);
                 rightClickMenu.show(e.getComponent(), e.getX(), e.getY());
 
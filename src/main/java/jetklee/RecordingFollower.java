@@ -0,0 +1,258 @@
+package jetklee;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Follows a recording which is still being written by JetKlee. New round files and memory files are detected
+ * by a WatchService and parsed on a background thread. The parsed data are applied to the tree on the Event
+ * Dispatch Thread, so the tree is never modified while it is displayed.
+ */
+public class RecordingFollower {
+    /**
+     * Receives updates of the followed tree. Called on the Event Dispatch Thread.
+     */
+    public interface Listener {
+        /**
+         * @param firstNewRound index of the first appended round.
+         */
+        void roundsAppended(int firstNewRound);
+
+        void followFailed(Exception e);
+    }
+
+    /**
+     * Parsed round file waiting to be applied.
+     */
+    private record RoundUpdate(String name, List<JSONObject> actions) {
+    }
+
+    /**
+     * Parsed memory file waiting to be attached, in the lazy mode it holds only the header.
+     */
+    private record MemoryUpdate(Path filePath, JSONObject actionJSON) {
+    }
+
+    private static final long RETRY_PERIOD_MS = 200;
+    private final Tree tree;
+    private final Listener listener;
+    private final Path treeDir;
+    private final Path memoryDir;
+    private final WatchService watchService;
+    private volatile boolean running;
+
+    // accessed only by the watching thread
+    private final TreeSet<Path> pendingRounds;
+    private final Set<Path> pendingMemory;
+    private final Set<String> knownMemory;
+    private int lastRoundNumber;
+
+    // accessed only by the Event Dispatch Thread
+    private final List<MemoryUpdate> unattachedMemory;
+
+    /**
+     * Starts watching the directory of the loaded tree. Must be called on the Event Dispatch Thread.
+     *
+     * @param tree     loaded tree to which new rounds are appended.
+     * @param listener receives updates of the tree.
+     * @throws IOException thrown if the directories can't be watched.
+     */
+    public RecordingFollower(Tree tree, Listener listener) throws IOException {
+        this.tree = tree;
+        this.listener = listener;
+        treeDir = tree.getRecordingDir().resolve(Tree.TREE_DIR);
+        memoryDir = tree.getRecordingDir().resolve(Tree.MEMORY_DIR);
+
+        pendingRounds = new TreeSet<>(Comparator.comparingInt(Tree::pathToInt));
+        pendingMemory = new HashSet<>();
+        knownMemory = new HashSet<>(tree.getLoadedMemoryFiles());
+        lastRoundNumber = tree.getRounds().isEmpty() ? -1
+                : Integer.parseInt(tree.getRounds().get(tree.getRounds().size() - 1));
+        unattachedMemory = new ArrayList<>();
+
+        // register before the first scan, so no file is missed in between
+        watchService = FileSystems.getDefault().newWatchService();
+        try {
+            treeDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            memoryDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+
+        running = true;
+        Thread thread = new Thread(this::watch, "RecordingFollower");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops following the recording. Updates which are already scheduled are dropped.
+     */
+    public void stop() {
+        running = false;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            // Nothing to do.
+        }
+    }
+
+    private void watch() {
+        try {
+            scanDirectory(treeDir);
+            scanDirectory(memoryDir);
+            parsePending();
+
+            while (running) {
+                WatchKey key = watchService.poll(RETRY_PERIOD_MS, TimeUnit.MILLISECONDS);
+                while (key != null) {
+                    Path dir = (Path) key.watchable();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            scanDirectory(dir);
+                        } else {
+                            addPending(dir.resolve((Path) event.context()));
+                        }
+                    }
+                    key.reset();
+                    key = watchService.poll();
+                }
+                parsePending();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // following was stopped
+        } catch (Exception e) {
+            SwingUtilities.invokeLater(() -> {
+                if (running) {
+                    stop();
+                    listener.followFailed(e);
+                }
+            });
+        }
+    }
+
+    private void scanDirectory(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.list(dir)) {
+            paths.forEach(this::addPending);
+        }
+    }
+
+    private void addPending(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.endsWith(".json")) {
+            return;
+        }
+        if (file.getParent().equals(treeDir)) {
+            if (Tree.pathToInt(file) > lastRoundNumber) {
+                pendingRounds.add(file);
+            }
+        } else if (!knownMemory.contains(name)) {
+            pendingMemory.add(file);
+        }
+    }
+
+    /**
+     * Parses the pending files. A file which can't be parsed yet is most likely still being written,
+     * so it stays pending and is parsed again later.
+     */
+    private void parsePending() {
+        List<RoundUpdate> rounds = new ArrayList<>();
+        while (!pendingRounds.isEmpty()) {
+            Path file = pendingRounds.first();
+            List<JSONObject> actions = readRound(file);
+            if (actions == null) {
+                // rounds must be applied in order, wait for this one
+                break;
+            }
+            pendingRounds.pollFirst();
+            lastRoundNumber = Tree.pathToInt(file);
+            rounds.add(new RoundUpdate(file.getFileName().toString().replace(".json", ""), actions));
+        }
+
+        List<MemoryUpdate> memory = new ArrayList<>();
+        for (Iterator<Path> it = pendingMemory.iterator(); it.hasNext(); ) {
+            Path file = it.next();
+            if (isEmpty(file)) {
+                // nothing to attach now, a modification of the file makes it pending again
+                it.remove();
+                continue;
+            }
+            JSONObject actionJSON = readMemory(file);
+            if (actionJSON != null) {
+                it.remove();
+                knownMemory.add(file.getFileName().toString());
+                memory.add(new MemoryUpdate(file, actionJSON));
+            }
+        }
+
+        if (!rounds.isEmpty() || !memory.isEmpty()) {
+            SwingUtilities.invokeLater(() -> apply(rounds, memory));
+        }
+    }
+
+    private List<JSONObject> readRound(Path file) {
+        List<JSONObject> actions = new ArrayList<>();
+        try (JsonStreamReader reader = new JsonStreamReader(file)) {
+            while (reader.hasNext()) {
+                actions.add(reader.nextObject());
+            }
+        } catch (IOException | JSONException e) {
+            return null;
+        }
+        return actions;
+    }
+
+    private boolean isEmpty(Path file) {
+        try {
+            return Files.size(file) == 0;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private JSONObject readMemory(Path file) {
+        try {
+            if (Settings.LAZY_MEMORY) {
+                try (JsonStreamReader reader = new JsonStreamReader(file)) {
+                    return reader.readHeader(Tree.MEMORY_HEADER_KEYS);
+                }
+            }
+            return new JSONObject(new String(Files.readAllBytes(file)));
+        } catch (IOException | JSONException e) {
+            return null;
+        }
+    }
+
+    private void apply(List<RoundUpdate> rounds, List<MemoryUpdate> memory) {
+        if (!running) {
+            return;
+        }
+        int firstNewRound = tree.getRoundCounter();
+        try {
+            for (RoundUpdate round : rounds) {
+                tree.appendRound(round.name(), round.actions());
+            }
+            // memory of a node may be written before the round which inserts the node
+            unattachedMemory.addAll(memory);
+            for (Iterator<MemoryUpdate> it = unattachedMemory.iterator(); it.hasNext(); ) {
+                MemoryUpdate update = it.next();
+                if (tree.attachMemory(update.filePath(), update.actionJSON())) {
+                    it.remove();
+                }
+            }
+        } catch (Exception e) {
+            stop();
+            listener.followFailed(e);
+            return;
+        }
+        listener.roundsAppended(firstNewRound);
+    }
+}
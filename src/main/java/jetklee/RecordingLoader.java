@@ -0,0 +1,147 @@
+package jetklee;
+
+import javax.swing.*;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads a recording on a background thread and keeps track of the progress. The tree is handed over to the
+ * listener as soon as its structure is loaded, memory of the nodes keeps loading afterward.
+ */
+public class RecordingLoader extends SwingWorker<Tree, Void> implements Tree.LoadMonitor {
+    /**
+     * Receives results of the loading. Called on the Event Dispatch Thread.
+     */
+    public interface Listener {
+        /**
+         * The structure of the tree is loaded and can be displayed. The loading waits until this method returns.
+         *
+         * @param loader loader of the tree.
+         */
+        void treeLoaded(RecordingLoader loader);
+
+        /**
+         * @param loader loader of the tree.
+         * @param error  null if the loading succeeded, {@link CancellationException} if it was cancelled.
+         */
+        void loadFinished(RecordingLoader loader, Exception error);
+    }
+
+    private final String dir;
+    private final Listener listener;
+    private final Tree tree;
+    private volatile String phase;
+    private volatile int fileCount;
+    private volatile long byteCount;
+    private volatile long phaseStartTime;
+    private final AtomicInteger loadedFiles;
+    private final AtomicLong loadedBytes;
+
+    /**
+     * @param dir      directory with the recorded data.
+     * @param listener receives results of the loading.
+     */
+    public RecordingLoader(String dir, Listener listener) {
+        this.dir = dir;
+        this.listener = listener;
+        tree = new Tree();
+        phase = "";
+        loadedFiles = new AtomicInteger();
+        loadedBytes = new AtomicLong();
+    }
+
+    @Override
+    protected Tree doInBackground() throws Exception {
+        tree.load(dir, this);
+        tree.saveSnapshot();
+        return tree;
+    }
+
+    @Override
+    protected void done() {
+        Exception error = null;
+        try {
+            get();
+        } catch (CancellationException e) {
+            error = e;
+        } catch (ExecutionException e) {
+            error = e.getCause() instanceof Exception cause ? cause : e;
+        } catch (InterruptedException e) {
+            error = new CancellationException();
+        }
+        listener.loadFinished(this, error);
+    }
+
+    @Override
+    public void phaseStarted(String phase, int fileCount, long byteCount) {
+        this.fileCount = fileCount;
+        this.byteCount = byteCount;
+        loadedFiles.set(0);
+        loadedBytes.set(0);
+        phaseStartTime = System.nanoTime();
+        this.phase = phase;
+    }
+
+    @Override
+    public void fileLoaded(long byteCount) {
+        loadedFiles.incrementAndGet();
+        loadedBytes.addAndGet(byteCount);
+    }
+
+    @Override
+    public void treeLoaded() {
+        if (isCancelled()) {
+            throw new CancellationException();
+        }
+        try {
+            SwingUtilities.invokeAndWait(() -> listener.treeLoaded(this));
+        } catch (InterruptedException e) {
+            throw new CancellationException();
+        } catch (InvocationTargetException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public Tree getTree() {
+        return tree;
+    }
+
+    public String getDir() {
+        return dir;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    public int getLoadedFiles() {
+        return loadedFiles.get();
+    }
+
+    public long getLoadedBytes() {
+        return loadedBytes.get();
+    }
+
+    /**
+     * @return estimated number of seconds until the current phase ends, or -1 if it can't be estimated yet.
+     */
+    public long getRemainingSeconds() {
+        long loaded = loadedBytes.get();
+        if (loaded == 0 || byteCount == 0) {
+            return -1;
+        }
+        double elapsed = (System.nanoTime() - phaseStartTime) / 1e9;
+        return Math.round(elapsed * (byteCount - loaded) / loaded);
+    }
+}
@@ -0,0 +1,652 @@
+package jetklee;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Binary cache of a loaded recording. It is written next to the recorded data after the first successful load
+ * and memory-mapped on the next opens instead of parsing the json files again.
+ * The snapshot is valid only while names, sizes and modification times of all json files match. The stamps are
+ * taken before the recording is parsed and the snapshot is not written if the files changed during the load,
+ * so data recorded meanwhile are never treated as parsed.
+ * A mapped buffer holds at most 2 GB, so larger snapshots are mapped in several overlapping segments.
+ */
+public class RecordingSnapshot {
+    private static final String SNAPSHOT_FILE = "ProgressExplorer.snapshot";
+    private static final int MAGIC = 0x4A4B5045; // "JKPE"
+    private static final int VERSION = 4;
+    private static final long NO_PAYLOAD = -1;
+    // magic, version, flag of all payloads and offset of the node table
+    private static final int HEADER_SIZE = 4 + 4 + 1 + 8;
+    // segments of the mapped file start every gigabyte
+    private static final long SEGMENT_STRIDE = 1L << 30;
+    private static final int SEGMENT_LENGTH = Integer.MAX_VALUE;
+    // each block of data is read from the segment in which it starts, so it has to fit in the overlap
+    private static final long MAX_BLOCK_SIZE = SEGMENT_LENGTH - SEGMENT_STRIDE;
+
+    /**
+     * Name, size and modification time of one recorded json file.
+     */
+    record FileStamp(String name, long size, long modified) {
+    }
+
+    /**
+     * Memory of one node stored in the mapped snapshot, decoded when the node's information is accessed.
+     * The constraints share the constraints of the parent node if the parent is decoded already.
+     */
+    private record SnapshotSource(ByteBuffer buffer, int offset, ExecutionState parent, StringPool pool)
+            implements ExecutionState.NodeInfoSource {
+        @Override
+        public ExecutionState.NodeInfo load(ExecutionState es) {
+            ExecutionState.NodeInfo info = new Reader(buffer, offset, pool).readNodeInfo(es);
+            return parent == null ? info : info.shareConstraints(parent.getCachedNodeInfo());
+        }
+    }
+
+    /**
+     * Overlapping segments of the mapped snapshot. Data at an offset are read from the segment in which they start.
+     */
+    private record Segments(ByteBuffer[] buffers, long stride) {
+        private ByteBuffer buffer(long offset) {
+            return buffers[(int) (offset / stride)];
+        }
+
+        private int position(long offset) {
+            return (int) (offset % stride);
+        }
+
+        private Reader reader(long offset, StringPool pool) {
+            return new Reader(buffer(offset), position(offset), pool);
+        }
+    }
+
+    /**
+     * Restores the tree from the snapshot in the recording directory.
+     *
+     * @param tree  tree to restore.
+     * @param dir   directory with the recorded data.
+     * @param cache cache for the node information decoded on demand in the lazy mode.
+     * @return true if the snapshot was valid and the tree was restored.
+     */
+    public static boolean restore(Tree tree, Path dir, NodeInfoCache cache) {
+        return restore(tree, dir, cache, SEGMENT_STRIDE, SEGMENT_LENGTH);
+    }
+
+    /**
+     * Restores the tree from the snapshot mapped in segments of the given size.
+     *
+     * @param segmentStride distance of the beginnings of two consecutive segments.
+     * @param segmentLength length of a segment, at least the stride.
+     */
+    static boolean restore(Tree tree, Path dir, NodeInfoCache cache, long segmentStride, int segmentLength) {
+        Path snapshotPath = dir.resolve(SNAPSHOT_FILE);
+        if (!Files.isRegularFile(snapshotPath)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) Math.max(1, (size + segmentStride - 1)
+                    / segmentStride)];
+            for (int i = 0; i < segments.length; ++i) {
+                long start = i * segmentStride;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(size - start, segmentLength));
+            }
+            return restore(tree, dir, new Segments(segments, segmentStride), cache);
+        } catch (IOException | RuntimeException e) {
+            // the snapshot is only an optimization, the recording is parsed instead
+            return false;
+        }
+    }
+
+    private static boolean restore(Tree tree, Path dir, Segments segments, NodeInfoCache cache) throws IOException {
+        StringPool pool = tree.getStringPool();
+        Reader reader = segments.reader(0, pool);
+        if (reader.buffer.getInt() != MAGIC || reader.buffer.getInt() != VERSION) {
+            return false;
+        }
+        boolean hasAllPayloads = reader.buffer.get() != 0;
+        if (!hasAllPayloads && !Settings.LAZY_MEMORY) {
+            return false;
+        }
+        long nodeTableOffset = reader.buffer.getLong();
+
+        reader.beginBlock();
+        int stampCount = reader.buffer.getInt();
+        List<FileStamp> stamps = new ArrayList<>(stampCount);
+        for (int i = 0; i < stampCount; ++i) {
+            stamps.add(new FileStamp(reader.readString(), reader.buffer.getLong(), reader.buffer.getLong()));
+        }
+        if (!stamps.equals(listFileStamps(dir))) {
+            return false;
+        }
+
+        reader = segments.reader(nodeTableOffset, pool);
+        int roundCounter = reader.buffer.getInt();
+        int roundCount = reader.buffer.getInt();
+        List<String> rounds = new ArrayList<>(roundCount);
+        for (int i = 0; i < roundCount; ++i) {
+            rounds.add(reader.readString());
+        }
+
+        // rows are stored in the order of the table, so the links are valid indices
+        int nodeCount = reader.buffer.getInt();
+        NodeTable nodes = new NodeTable();
+        long[] payloadOffsets = new long[nodeCount];
+        String[] memoryFiles = new String[nodeCount];
+
+        for (int i = 0; i < nodeCount; ++i) {
+            int id = reader.buffer.getInt();
+            int index = nodes.add(id);
+            nodes.setParent(index, reader.buffer.getInt());
+            nodes.setLeft(index, reader.buffer.getInt());
+            nodes.setRight(index, reader.buffer.getInt());
+            nodes.setStartRound(index, reader.buffer.getInt());
+            nodes.setEndRound(index, reader.buffer.getInt());
+            nodes.setX(index, reader.buffer.getInt());
+            nodes.setY(index, reader.buffer.getInt());
+            nodes.setSubTreeMinX(index, reader.buffer.getInt());
+            nodes.setSubTreeMaxX(index, reader.buffer.getInt());
+            nodes.setExecutionState(index, new ExecutionState(reader.readInsertContext(), id));
+            payloadOffsets[i] = reader.buffer.getLong();
+            memoryFiles[i] = reader.readString();
+        }
+
+        Path memoryDir = dir.resolve(Tree.MEMORY_DIR);
+        if (Settings.LAZY_MEMORY) {
+            for (int i = 0; i < nodeCount; ++i) {
+                ExecutionState es = nodes.getExecutionState(i);
+                int parent = nodes.getParent(i);
+                ExecutionState parentState = parent != NodeTable.NONE ? nodes.getExecutionState(parent) : null;
+                if (payloadOffsets[i] != NO_PAYLOAD) {
+                    es.setNodeInfoSource(new SnapshotSource(segments.buffer(payloadOffsets[i]),
+                            segments.position(payloadOffsets[i]), parentState, pool), cache);
+                } else if (memoryFiles[i] != null) {
+                    es.setNodeInfoSource(new Tree.StatesFileSource(memoryDir.resolve(memoryFiles[i]), parentState,
+                            pool), cache);
+                }
+            }
+        } else {
+            // payloads are independent of each other, decode them in parallel
+            List<ExecutionState.NodeInfo> infos = IntStream.range(0, nodeCount).parallel()
+                    .mapToObj(i -> payloadOffsets[i] == NO_PAYLOAD ? null
+                            : segments.reader(payloadOffsets[i], pool).readNodeInfo(nodes.getExecutionState(i)))
+                    .toList();
+            for (int i = 0; i < nodeCount; ++i) {
+                if (infos.get(i) != null) {
+                    nodes.getExecutionState(i).setNodeInfo(infos.get(i));
+                }
+            }
+        }
+
+        Set<String> loadedMemoryFiles = new HashSet<>();
+        String memoryPrefix = Tree.MEMORY_DIR + "/";
+        for (FileStamp stamp : stamps) {
+            if (stamp.name().startsWith(memoryPrefix) && stamp.size() != 0) {
+                loadedMemoryFiles.add(stamp.name().substring(memoryPrefix.length()));
+            }
+        }
+
+        tree.restore(roundCounter, rounds, nodes, loadedMemoryFiles);
+        return true;
+    }
+
+    /**
+     * Writes the snapshot of the loaded tree into the recording directory. Any failure is ignored,
+     * the recording is then parsed again on the next open.
+     *
+     * @param tree   loaded tree with computed layout.
+     * @param dir    directory with the recorded data.
+     * @param stamps stamps of the json files taken before the tree was loaded from them.
+     */
+    public static void save(Tree tree, Path dir, List<FileStamp> stamps) {
+        Path snapshotPath = dir.resolve(SNAPSHOT_FILE);
+        Path tempPath = dir.resolve(SNAPSHOT_FILE + ".tmp");
+        try {
+            long largestBlock = write(tree, stamps, tempPath);
+            if (largestBlock > MAX_BLOCK_SIZE) {
+                System.err.println("The snapshot of the recording is not written, its block of " + largestBlock
+                        + " bytes does not fit into a mapped segment.");
+                Files.deleteIfExists(tempPath);
+                return;
+            }
+            // files written during the load may be missing in the tree
+            if (!stamps.equals(listFileStamps(dir))) {
+                Files.deleteIfExists(tempPath);
+                return;
+            }
+            Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(tempPath);
+            } catch (IOException ignored) {
+                // Nothing to do.
+            }
+        }
+    }
+
+    /**
+     * @return size of the largest block of the written snapshot in bytes.
+     */
+    private static long write(Tree tree, List<FileStamp> stamps, Path snapshotPath) throws IOException {
+        NodeTable nodes = tree.getNodes();
+
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Writer writer = new Writer(channel);
+            writer.out.writeInt(MAGIC);
+            writer.out.writeInt(VERSION);
+            writer.out.writeByte(0); // all payloads present, patched below
+            writer.out.writeLong(0); // node table offset, patched below
+
+            writer.beginBlock();
+            writer.out.writeInt(stamps.size());
+            for (FileStamp stamp : stamps) {
+                writer.writeString(stamp.name());
+                writer.out.writeLong(stamp.size());
+                writer.out.writeLong(stamp.modified());
+            }
+
+            boolean hasAllPayloads = true;
+            long[] payloadOffsets = new long[nodes.size()];
+            String[] memoryFiles = new String[nodes.size()];
+            for (int i = 0; i < nodes.size(); ++i) {
+                ExecutionState es = nodes.getExecutionState(i);
+                ExecutionState.NodeInfo info = es.getLoadedNodeInfo();
+                payloadOffsets[i] = NO_PAYLOAD;
+                if (info != null) {
+                    payloadOffsets[i] = writer.position();
+                    writer.beginBlock();
+                    writer.writeNodeInfo(info);
+                } else if (es.getNodeInfoSource() instanceof Tree.StatesFileSource source) {
+                    memoryFiles[i] = source.filePath().getFileName().toString();
+                    hasAllPayloads = false;
+                }
+            }
+
+            long nodeTableOffset = writer.position();
+            writer.beginBlock();
+            writer.out.writeInt(tree.getRoundCounter());
+            writer.out.writeInt(tree.getRounds().size());
+            for (String round : tree.getRounds()) {
+                writer.writeString(round);
+            }
+            writer.out.writeInt(nodes.size());
+            for (int i = 0; i < nodes.size(); ++i) {
+                writer.out.writeInt(nodes.getId(i));
+                writer.out.writeInt(nodes.getParent(i));
+                writer.out.writeInt(nodes.getLeft(i));
+                writer.out.writeInt(nodes.getRight(i));
+                writer.out.writeInt(nodes.getStartRound(i));
+                writer.out.writeInt(nodes.getEndRound(i));
+                writer.out.writeInt(nodes.getX(i));
+                writer.out.writeInt(nodes.getY(i));
+                writer.out.writeInt(nodes.getSubTreeMinX(i));
+                writer.out.writeInt(nodes.getSubTreeMaxX(i));
+                writer.writeInsertContext(nodes.getExecutionState(i).getInsertContext());
+                writer.out.writeLong(payloadOffsets[i]);
+                writer.writeString(memoryFiles[i]);
+            }
+            long end = writer.position();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE - 8);
+            header.put((byte) (hasAllPayloads ? 1 : 0));
+            header.putLong(nodeTableOffset);
+            header.flip();
+            channel.write(header, 8);
+
+            // the payloads are written in the order of the table, each block ends where the next one starts
+            long largestBlock = 0;
+            long blockStart = HEADER_SIZE;
+            for (long payloadOffset : payloadOffsets) {
+                if (payloadOffset != NO_PAYLOAD) {
+                    largestBlock = Math.max(largestBlock, payloadOffset - blockStart);
+                    blockStart = payloadOffset;
+                }
+            }
+            largestBlock = Math.max(largestBlock, nodeTableOffset - blockStart);
+            return Math.max(largestBlock, end - nodeTableOffset);
+        }
+    }
+
+    /**
+     * @param dir directory with the recorded data.
+     * @return names, sizes and modification times of the json files of the recording.
+     * @throws IOException thrown if the files can't be listed.
+     */
+    static List<FileStamp> listFileStamps(Path dir) throws IOException {
+        List<FileStamp> stamps = new ArrayList<>();
+        for (String subDir : new String[]{Tree.TREE_DIR, Tree.MEMORY_DIR}) {
+            try (Stream<Path> paths = Files.list(dir.resolve(subDir))) {
+                List<Path> files = paths.filter(Files::isRegularFile)
+                        .filter(path -> path.getFileName().toString().endsWith(".json"))
+                        .sorted()
+                        .toList();
+                for (Path file : files) {
+                    stamps.add(new FileStamp(subDir + "/" + file.getFileName(), Files.size(file),
+                            Files.getLastModifiedTime(file).toMillis()));
+                }
+            }
+        }
+        return stamps;
+    }
+
+    /**
+     * Encodes the data of the snapshot. Strings are stored once per block and referenced by index afterward.
+     */
+    private static class Writer {
+        private final FileChannel channel;
+        private final DataOutputStream out;
+        private final HashMap<String, Integer> strings;
+
+        private Writer(FileChannel channel) {
+            this.channel = channel;
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            this.strings = new HashMap<>();
+        }
+
+        private long position() throws IOException {
+            out.flush();
+            return channel.position();
+        }
+
+        private void beginBlock() {
+            strings.clear();
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            Integer index = strings.get(value);
+            if (index != null) {
+                out.writeInt(index);
+                return;
+            }
+            strings.put(value, strings.size());
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(-2);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        private void writeBoolean(boolean value) throws IOException {
+            out.writeByte(value ? 1 : 0);
+        }
+
+        private void writeLocation(ExecutionState.Location location) throws IOException {
+            writeString(location.file());
+            out.writeInt(location.line());
+            out.writeInt(location.column());
+            out.writeInt(location.assemblyLine());
+        }
+
+        private void writeInsertContext(ExecutionState.InsertContext context) throws IOException {
+            out.writeInt(context.nodeID());
+            out.writeInt(context.stateID());
+            writeBoolean(context.uniqueState());
+            writeLocation(context.firstLocation());
+            out.writeInt(context.depth());
+            out.writeInt(context.stack().size());
+            for (ExecutionState.Location location : context.stack()) {
+                writeLocation(location);
+            }
+        }
+
+        private void writeNodeInfo(ExecutionState.NodeInfo info) throws IOException {
+            ExecutionState.Context context = info.context();
+            out.writeInt(context.parentID());
+            out.writeInt(context.parentJSON());
+            writeLocation(context.lastLocation());
+            writeBoolean(context.coveredNew());
+            writeBoolean(context.forkDisabled());
+            out.writeInt(context.instsSinceCovNew());
+            out.writeInt(context.steppedInstructions());
+
+            out.writeInt(info.constraints().size());
+            for (String constraint : info.constraints()) {
+                writeString(constraint);
+            }
+
+            ExecutionState.Memory memory = info.memory();
+            writeObjectStates(memory.additions());
+            writeObjectStates(memory.changes());
+            out.writeInt(memory.deletions().size());
+            for (ExecutionState.Deletion deletion : memory.deletions()) {
+                out.writeInt(deletion.objID());
+            }
+        }
+
+        private void writeObjectStates(List<ExecutionState.ObjectState> objectStates) throws IOException {
+            out.writeInt(objectStates.size());
+            for (ExecutionState.ObjectState objectState : objectStates) {
+                out.writeInt(objectState.objID());
+                out.writeInt(objectState.segment());
+                writeString(objectState.name());
+                writeString(objectState.size());
+                writeBoolean(objectState.isLocal());
+                writeBoolean(objectState.isFixed());
+                writeBoolean(objectState.isUserSpec());
+                writeBoolean(objectState.isLazy());
+                out.writeInt(objectState.copyOnWriteOwner());
+                writeBoolean(objectState.readOnly());
+
+                ExecutionState.AllocSite allocSite = objectState.allocSite();
+                writeBoolean(allocSite != null);
+                if (allocSite != null) {
+                    writeString(allocSite.scope());
+                    writeString(allocSite.name());
+                    writeString(allocSite.code());
+                }
+                writePlane(objectState.segmentPlane());
+                writePlane(objectState.offsetPlane());
+            }
+        }
+
+        private void writePlane(ExecutionState.Plane plane) throws IOException {
+            writeBoolean(plane != null);
+            if (plane == null) {
+                return;
+            }
+            writeString(plane.rootObject());
+            out.writeInt(plane.sizeBound());
+            writeBoolean(plane.initialized());
+            writeBoolean(plane.symbolic());
+            out.writeInt(plane.initialValue());
+            writeDiff(plane.concreteStore());
+            writeDiff(plane.concreteMask());
+            writeDiff(plane.knownSymbolics());
+
+            out.writeInt(plane.updates().size());
+            for (Map.Entry<String, String> update : plane.updates()) {
+                writeString(update.getKey());
+                writeString(update.getValue());
+            }
+        }
+
+        private void writeDiff(ExecutionState.Diff diff) throws IOException {
+            writeByteMap(diff.additions());
+            writeByteMap(diff.deletions());
+        }
+
+        private void writeByteMap(ExecutionState.ByteMap byteMap) throws IOException {
+            int[] indices = new int[byteMap.size()];
+            String[] values = new String[byteMap.size()];
+            int[] count = {0};
+            byteMap.forEach((index, value) -> {
+                indices[count[0]] = index;
+                values[count[0]++] = value;
+            });
+
+            out.writeInt(indices.length);
+            for (int i = 0; i < indices.length; ++i) {
+                out.writeInt(indices[i]);
+                writeString(values[i]);
+            }
+        }
+    }
+
+    /**
+     * Decodes the data written by {@link Writer}. Each reader has its own view of the buffer,
+     * so multiple readers can decode one snapshot in parallel.
+     */
+    private static class Reader {
+        private final ByteBuffer buffer;
+        private final ArrayList<String> strings;
+        private final StringPool pool;
+
+        private Reader(ByteBuffer buffer, int offset, StringPool pool) {
+            this.buffer = buffer.duplicate();
+            this.buffer.position(offset);
+            this.strings = new ArrayList<>();
+            this.pool = pool;
+        }
+
+        private void beginBlock() {
+            strings.clear();
+        }
+
+        private String readString() {
+            int index = buffer.getInt();
+            if (index == -1) {
+                return null;
+            }
+            if (index >= 0) {
+                return strings.get(index);
+            }
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            String value = pool.intern(new String(bytes, StandardCharsets.UTF_8));
+            strings.add(value);
+            return value;
+        }
+
+        private boolean readBoolean() {
+            return buffer.get() != 0;
+        }
+
+        private ExecutionState.Location readLocation() {
+            return new ExecutionState.Location(readString(), buffer.getInt(), buffer.getInt(), buffer.getInt());
+        }
+
+        private ExecutionState.InsertContext readInsertContext() {
+            int nodeID = buffer.getInt();
+            int stateID = buffer.getInt();
+            boolean uniqueState = readBoolean();
+            ExecutionState.Location firstLocation = readLocation();
+            int depth = buffer.getInt();
+            int stackSize = buffer.getInt();
+            ArrayList<ExecutionState.Location> stack = new ArrayList<>(stackSize);
+            for (int i = 0; i < stackSize; ++i) {
+                stack.add(readLocation());
+            }
+            return new ExecutionState.InsertContext(nodeID, stateID, uniqueState, firstLocation, depth, stack);
+        }
+
+        private ExecutionState.NodeInfo readNodeInfo(ExecutionState es) {
+            ExecutionState.Context context = new ExecutionState.Context(
+                    es.getInsertContext(),
+                    buffer.getInt(),
+                    buffer.getInt(),
+                    readLocation(),
+                    readBoolean(),
+                    readBoolean(),
+                    buffer.getInt(),
+                    buffer.getInt()
+            );
+
+            int constraintCount = buffer.getInt();
+            ArrayList<String> constraints = new ArrayList<>(constraintCount);
+            for (int i = 0; i < constraintCount; ++i) {
+                constraints.add(readString());
+            }
+
+            ArrayList<ExecutionState.ObjectState> additions = readObjectStates(ExecutionState.OperationType.ADDITION);
+            ArrayList<ExecutionState.ObjectState> changes = readObjectStates(ExecutionState.OperationType.CHANGE);
+            int deletionCount = buffer.getInt();
+            ArrayList<ExecutionState.Deletion> deletions = new ArrayList<>(deletionCount);
+            for (int i = 0; i < deletionCount; ++i) {
+                deletions.add(new ExecutionState.Deletion(buffer.getInt(), ExecutionState.OperationType.DELETION));
+            }
+
+            return new ExecutionState.NodeInfo(new ExecutionState.Memory(additions, changes, deletions),
+                    ConstraintSequence.of(constraints), context);
+        }
+
+        private ArrayList<ExecutionState.ObjectState> readObjectStates(ExecutionState.OperationType type) {
+            int count = buffer.getInt();
+            ArrayList<ExecutionState.ObjectState> objectStates = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i) {
+                int objID = buffer.getInt();
+                int segment = buffer.getInt();
+                String name = readString();
+                String size = readString();
+                boolean isLocal = readBoolean();
+                boolean isFixed = readBoolean();
+                boolean isUserSpec = readBoolean();
+                boolean isLazy = readBoolean();
+                int copyOnWriteOwner = buffer.getInt();
+                boolean readOnly = readBoolean();
+
+                ExecutionState.AllocSite allocSite = null;
+                if (readBoolean()) {
+                    allocSite = new ExecutionState.AllocSite(readString(), readString(), readString());
+                }
+                ExecutionState.Plane segmentPlane = readPlane(ExecutionState.Plane.PlaneType.SEGMENT, objID);
+                ExecutionState.Plane offsetPlane = readPlane(ExecutionState.Plane.PlaneType.OFFSET, objID);
+
+                objectStates.add(new ExecutionState.ObjectState(objID, type, segment, name, size, isLocal, isFixed,
+                        isUserSpec, isLazy, copyOnWriteOwner, readOnly, allocSite, segmentPlane, offsetPlane));
+            }
+            return objectStates;
+        }
+
+        private ExecutionState.Plane readPlane(ExecutionState.Plane.PlaneType type, int objID) {
+            if (!readBoolean()) {
+                return null;
+            }
+            String rootObject = readString();
+            int sizeBound = buffer.getInt();
+            boolean initialized = readBoolean();
+            boolean symbolic = readBoolean();
+            int initialValue = buffer.getInt();
+            ExecutionState.Diff concreteStore = readDiff();
+            ExecutionState.Diff concreteMask = readDiff();
+            ExecutionState.Diff knownSymbolics = readDiff();
+
+            int updateCount = buffer.getInt();
+            ExecutionState.Updates updates = new ExecutionState.Updates();
+            for (int i = 0; i < updateCount; ++i) {
+                updates.add(Map.entry(readString(), readString()));
+            }
+
+            return new ExecutionState.Plane(type, objID, rootObject, sizeBound, initialized, symbolic, initialValue,
+                    concreteStore, concreteMask, knownSymbolics, updates);
+        }
+
+        private ExecutionState.Diff readDiff() {
+            return new ExecutionState.Diff(readByteMap(), readByteMap());
+        }
+
+        private ExecutionState.ByteMap readByteMap() {
+            int count = buffer.getInt();
+            ExecutionState.ByteMap byteMap = new ExecutionState.ByteMap();
+            for (int i = 0; i < count; ++i) {
+                int index = buffer.getInt();
+                byteMap.put(index, readString());
+            }
+            return byteMap;
+        }
+    }
+}
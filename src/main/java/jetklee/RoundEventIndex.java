@@ -0,0 +1,72 @@
+package jetklee;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Index of the nodes which appear and disappear in each round. A node appears in the first round in which it is
+ * drawn and disappears in the round after the last one, so the nodes drawn differently in two rounds are found
+ * among the events of the rounds between them instead of checking all nodes. A node drawn in only one of the rounds
+ * has exactly one event between them, a node with both events between them is drawn in neither. The index keeps
+ * the intervals of the nodes and has to be built again when they change.
+ */
+public class RoundEventIndex {
+    private final int[] starts;
+    private final int[] ends;
+    // events of round r are at positions roundStarts[r] to roundStarts[r + 1]
+    private final int[] roundStarts;
+    private final int[] events;
+
+    /**
+     * @param starts     first round in which each node is drawn.
+     * @param ends       round after the last one in which each node is drawn, nodes with an empty interval
+     *                   are never drawn.
+     * @param roundCount number of rounds.
+     */
+    public RoundEventIndex(int[] starts, int[] ends, int roundCount) {
+        this.starts = starts;
+        this.ends = ends;
+        // rounds up to roundCount, in which the nodes drawn in the last round disappear
+        roundStarts = new int[roundCount + 3];
+        for (int node = 0; node < starts.length; ++node) {
+            if (starts[node] < ends[node]) {
+                ++roundStarts[Math.min(starts[node], roundCount) + 2];
+                ++roundStarts[Math.min(ends[node], roundCount) + 2];
+            }
+        }
+        for (int i = 2; i < roundStarts.length; ++i) {
+            roundStarts[i] += roundStarts[i - 1];
+        }
+        events = new int[roundStarts[roundStarts.length - 1]];
+        for (int node = 0; node < starts.length; ++node) {
+            if (starts[node] < ends[node]) {
+                events[roundStarts[Math.min(starts[node], roundCount) + 1]++] = node;
+                events[roundStarts[Math.min(ends[node], roundCount) + 1]++] = node;
+            }
+        }
+    }
+
+    /**
+     * Finds the nodes drawn in only one of the given rounds among the nodes which appear or disappear in the rounds
+     * after the earlier of the rounds up to the later one. Each such node is found once.
+     *
+     * @param fromRound the first round.
+     * @param toRound   the second round.
+     * @param consumer  receives indices of the found nodes.
+     */
+    public void forEachEvent(int fromRound, int toRound, IntConsumer consumer) {
+        int earlier = Math.min(fromRound, toRound);
+        int later = Math.max(fromRound, toRound);
+        int last = Math.min(later, roundStarts.length - 3);
+        if (earlier >= last) {
+            return;
+        }
+        for (int i = roundStarts[earlier + 1]; i < roundStarts[last + 1]; ++i) {
+            int node = events[i];
+            boolean appears = earlier < starts[node] && starts[node] <= later;
+            boolean disappears = earlier < ends[node] && ends[node] <= later;
+            if (appears != disappears) {
+                consumer.accept(node);
+            }
+        }
+    }
+}
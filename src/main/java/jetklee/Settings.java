@@ -0,0 +1,20 @@
+package jetklee;
+
+/**
+ * Class that holds all loading and caching parameters. Each of them can be overridden by a system property,
+ * e.g. {@code java -Djetklee.lazyMemory=true -jar ...}.
+ */
+public class Settings {
+    // loading
+    public static final boolean LAZY_MEMORY = Boolean.getBoolean("jetklee.lazyMemory");
+    public static final boolean SNAPSHOT = Boolean.parseBoolean(System.getProperty("jetklee.snapshot", "true"));
+
+    // caches
+    public static final int NODE_INFO_CACHE_SIZE = Integer.getInteger("jetklee.nodeInfoCacheSize", 4096);
+    // megabytes
+    public static final int COMPLETE_MEMORY_CACHE_SIZE = Integer.getInteger("jetklee.completeMemoryCacheSize", 256);
+    // complete memory is kept at every n-th level of depth, 0 disables the checkpoints
+    public static final int MEMORY_CHECKPOINT_INTERVAL = Integer.getInteger("jetklee.memoryCheckpointInterval", 32);
+    // megabytes of pixels of the drawn tree
+    public static final int TILE_CACHE_SIZE = Integer.getInteger("jetklee.tileCacheSize", 64);
+}
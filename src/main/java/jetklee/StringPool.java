@@ -0,0 +1,84 @@
+package jetklee;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deduplicates strings which repeat across the nodes of a recording, e.g. file names of locations, allocation sites,
+ * root objects, byte values and constraints. Repeated values share one instance, so only the first occurrence stays
+ * on the heap. Each tree has its own pool and the pool references its strings weakly, so a string is forgotten once
+ * no node uses it, e.g. after the nodes parsed in the lazy mode are evicted. Safe to use from multiple parsing threads.
+ */
+public final class StringPool {
+    // header and fields of String plus header of its byte array, with compressed oops
+    private static final int STRING_OVERHEAD = 24 + 16;
+    // keys are the pooled instances, the entries must not reference them strongly
+    private final WeakHashMap<String, Entry> pool = new WeakHashMap<>();
+    private final AtomicLong lookups = new AtomicLong();
+
+    /**
+     * Pooled instance together with the number of copies it replaced.
+     */
+    private static final class Entry extends WeakReference<String> {
+        private long sharedCount;
+
+        private Entry(String value) {
+            super(value);
+        }
+    }
+
+    /**
+     * @param value string to deduplicate, may be null.
+     * @return shared instance equal to the value.
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        lookups.incrementAndGet();
+        synchronized (pool) {
+            Entry entry = pool.get(value);
+            String pooled = entry == null ? null : entry.get();
+            if (pooled == null) {
+                pool.put(value, new Entry(value));
+                return value;
+            }
+            ++entry.sharedCount;
+            return pooled;
+        }
+    }
+
+    public int getDistinctCount() {
+        synchronized (pool) {
+            return pool.size();
+        }
+    }
+
+    public long getLookupCount() {
+        return lookups.get();
+    }
+
+    /**
+     * Strings which are no longer used by any node are not counted, together with the copies they replaced.
+     *
+     * @return estimated number of bytes taken by the copies which were replaced by the pooled instances.
+     */
+    public long getSavedBytes() {
+        long savedBytes = 0;
+        synchronized (pool) {
+            for (Entry entry : pool.values()) {
+                String pooled = entry.get();
+                if (pooled != null) {
+                    savedBytes += entry.sharedCount * estimateSize(pooled);
+                }
+            }
+        }
+        return savedBytes;
+    }
+
+    private static long estimateSize(String value) {
+        // latin-1 strings take one byte per character, arrays are aligned to 8 bytes
+        return STRING_OVERHEAD + ((value.length() + 7) & ~7);
+    }
+}
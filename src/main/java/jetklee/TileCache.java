@@ -0,0 +1,206 @@
+package jetklee;
+
+import javax.swing.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cache of square tiles of the drawn tree. A tile is identified by the round, the zoom, the scale of the screen
+ * and its position in the grid of tiles covering the panel. The least recently used tiles are evicted once
+ * the pixels of the cached images exceed the capacity, so tiles of a screen with a larger scale count with their
+ * larger images. An image reused by several tiles counts once. Tiles around the visible ones are drawn in advance
+ * on background threads. The cache is accessed only on the Event Dispatch Thread, the background threads only
+ * draw the images.
+ */
+public class TileCache {
+    public static final int TILE_SIZE = 256;
+
+    public record Tile(int round, float zoom, double scale, int x, int y) {
+    }
+
+    /**
+     * Draws the image of a tile. May be called on a background thread.
+     */
+    public interface Renderer {
+        /**
+         * @return the image of the tile or null if it can't be drawn now.
+         */
+        BufferedImage render(Tile tile);
+    }
+
+    private final long capacity;
+    private final LinkedHashMap<Tile, BufferedImage> images;
+    // number of cached tiles which share each image
+    private final IdentityHashMap<BufferedImage, Integer> imageTiles;
+    private long bytes;
+    private final Set<Tile> pending;
+    private final ExecutorService executor;
+    // tiles drawn by background threads which are still useful, others are skipped
+    private volatile Set<Tile> wanted;
+    // incremented when the images being drawn become invalid, images drawn before are dropped
+    private int generation;
+
+    /**
+     * @param capacity maximal size of the pixels of the cached images in bytes.
+     */
+    public TileCache(long capacity) {
+        this.capacity = capacity;
+        images = new LinkedHashMap<>(16, 0.75f, true);
+        imageTiles = new IdentityHashMap<>();
+        bytes = 0;
+        pending = new HashSet<>();
+        wanted = Set.of();
+        generation = 0;
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "Tile renderer");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the cached image of the tile or null.
+     */
+    public BufferedImage get(Tile tile) {
+        return images.get(tile);
+    }
+
+    public void put(Tile tile, BufferedImage image) {
+        if (capacity == 0) {
+            return;
+        }
+        BufferedImage previous = images.put(tile, image);
+        if (previous != null) {
+            release(previous);
+        }
+        if (imageTiles.merge(image, 1, Integer::sum) == 1) {
+            bytes += getSize(image);
+        }
+
+        Iterator<BufferedImage> it = images.values().iterator();
+        while (bytes > capacity && it.hasNext()) {
+            BufferedImage evicted = it.next();
+            it.remove();
+            release(evicted);
+        }
+    }
+
+    /**
+     * Draws the tile on a background thread unless it is cached or already being drawn. The layout of the tree
+     * changes only on the Event Dispatch Thread, which invalidates the cache in the same event, so a tile whose
+     * drawing failed because of the change is dropped. Other failures are rethrown on the Event Dispatch Thread
+     * like failures of drawing the visible tiles.
+     *
+     * @param tile     the tile.
+     * @param renderer draws the image of the tile.
+     */
+    public void prefetch(Tile tile, Renderer renderer) {
+        if (capacity == 0 || images.containsKey(tile) || !pending.add(tile)) {
+            return;
+        }
+        int submitted = generation;
+        executor.execute(() -> {
+            BufferedImage image = null;
+            RuntimeException failure = null;
+            if (wanted.contains(tile)) {
+                try {
+                    image = renderer.render(tile);
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+            }
+            BufferedImage rendered = image;
+            RuntimeException renderFailure = failure;
+            SwingUtilities.invokeLater(() -> {
+                if (submitted != generation) {
+                    return;
+                }
+                pending.remove(tile);
+                if (renderFailure != null) {
+                    throw renderFailure;
+                }
+                if (rendered != null && !images.containsKey(tile)) {
+                    put(tile, rendered);
+                }
+            });
+        });
+    }
+
+    /**
+     * Sets the tiles which are still useful, tiles waiting for a background thread which are not among them
+     * are skipped.
+     */
+    public void setWanted(Set<Tile> tiles) {
+        wanted = tiles;
+    }
+
+    /**
+     * Drops all tiles, called when the layout of the tree changes. Tiles being drawn are dropped when finished.
+     */
+    public void invalidate() {
+        ++generation;
+        images.clear();
+        imageTiles.clear();
+        bytes = 0;
+        pending.clear();
+    }
+
+    /**
+     * Drops the tiles being drawn on background threads, called when the data they are drawn from change.
+     * Cached tiles are kept.
+     */
+    public void cancelPending() {
+        ++generation;
+        pending.clear();
+    }
+
+    /**
+     * @return cached tiles of the round drawn at the zoom.
+     */
+    public List<Tile> getTiles(int round, float zoom) {
+        List<Tile> tiles = new ArrayList<>();
+        for (Tile tile : images.keySet()) {
+            if (tile.round() == round && tile.zoom() == zoom) {
+                tiles.add(tile);
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * Lets cached tiles whose content does not change in another round serve also for the other round.
+     *
+     * @param tiles cached tiles.
+     * @param round round in which the tiles are reused.
+     */
+    public void reuse(List<Tile> tiles, int round) {
+        for (Tile tile : tiles) {
+            BufferedImage image = images.get(tile);
+            Tile target = new Tile(round, tile.zoom(), tile.scale(), tile.x(), tile.y());
+            if (image != null && !images.containsKey(target)) {
+                put(target, image);
+            }
+        }
+    }
+
+    private void release(BufferedImage image) {
+        if (imageTiles.merge(image, -1, Integer::sum) == 0) {
+            imageTiles.remove(image);
+            bytes -= getSize(image);
+        }
+    }
+
+    private static long getSize(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * image.getColorModel().getPixelSize() / 8;
+    }
+}
@@ -1,11 +1,11 @@
 package jetklee;
 
-import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.io.IOException;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.stream.Stream;
 
 /**
@@ -14,139 +14,549 @@ import java.util.stream.Stream;
 public class Tree {
     private int roundCounter;
     private Node root;
-    private HashMap<Integer, Node> nodes;
+    private NodeTable nodes;
     private List<String> rounds;
-    private static final String TREE_DIR = "Tree";
-    private static final String MEMORY_DIR = "States";
+    private final NodeInfoCache nodeInfoCache;
+    // strings of the nodes of the loaded recording, a new pool for every recording
+    private StringPool stringPool;
+    private Path recordingDir;
+    private boolean restoredFromSnapshot;
+    private Set<String> loadedMemoryFiles;
+    // stamps of the recorded files taken before they were parsed, null if they can't be listed
+    private List<RecordingSnapshot.FileStamp> fileStamps;
+    // indices of the nodes which are not erased, maintained once rounds are appended
+    private BitSet openNodes;
+    // null in the lazy mode, when the memory of the nodes is not parsed during loading
+    private ObjectLifetimeIndex lifetimeIndex;
+    private ObjectCatalog objectCatalog;
+    private volatile boolean memoryLoaded;
+    static final String TREE_DIR = "Tree";
+    static final String MEMORY_DIR = "States";
+    static final Set<String> MEMORY_HEADER_KEYS = Set.of("action", "nodeID");
+    private static final int MEMORY_CHUNK_SIZE = 1024;
+
+    /**
+     * Observes loading of the tree. Methods except {@link #treeLoaded()} may be called from multiple loading
+     * threads at once.
+     */
+    public interface LoadMonitor {
+        /**
+         * @param phase     name of the phase.
+         * @param fileCount number of files read in the phase.
+         * @param byteCount number of bytes read in the phase.
+         */
+        void phaseStarted(String phase, int fileCount, long byteCount);
+
+        /**
+         * @param byteCount size of the loaded file.
+         */
+        void fileLoaded(long byteCount);
+
+        /**
+         * Called once the structure of the tree is complete. Memory of the nodes is loaded afterward.
+         */
+        void treeLoaded();
+
+        boolean isCancelled();
+    }
+
+    private static final LoadMonitor NO_MONITOR = new LoadMonitor() {
+        @Override
+        public void phaseStarted(String phase, int fileCount, long byteCount) {
+        }
+
+        @Override
+        public void fileLoaded(long byteCount) {
+        }
+
+        @Override
+        public void treeLoaded() {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+    };
 
     public Tree() {
         roundCounter = 0;
         root = null;
-        nodes = new HashMap<>();
+        nodes = new NodeTable();
         rounds = new ArrayList<>();
+        nodeInfoCache = new NodeInfoCache(Settings.NODE_INFO_CACHE_SIZE);
+        stringPool = new StringPool();
+        recordingDir = null;
+        restoredFromSnapshot = false;
+        loadedMemoryFiles = new HashSet<>();
+        openNodes = null;
+        lifetimeIndex = null;
+        objectCatalog = null;
+        memoryLoaded = false;
     }
 
     /**
      * Loads json files containing data about the process tree.
+     * If the directory contains an up-to-date snapshot of the recording, the tree is restored from it instead.
      *
      * @param dir directory with json files.
      * @throws Exception thrown if file can't be loaded.
      */
     public void load(String dir) throws Exception {
-        loadTree(Paths.get(dir, TREE_DIR));
-        loadMemory(Paths.get(dir, MEMORY_DIR));
+        load(dir, NO_MONITOR);
+    }
+
+    /**
+     * Loads json files containing data about the process tree and reports the progress.
+     * The structure of the tree is loaded first, then the memory of the nodes.
+     *
+     * @param dir     directory with json files.
+     * @param monitor observer of the loading.
+     * @throws Exception thrown if file can't be loaded.
+     * @throws CancellationException thrown if the monitor cancelled the loading.
+     */
+    public void load(String dir, LoadMonitor monitor) throws Exception {
+        recordingDir = Paths.get(dir);
+        root = null;
+        nodes = new NodeTable();
+        nodeInfoCache.clear();
+        loadedMemoryFiles = new HashSet<>();
+        openNodes = null;
+        setLifetimeIndex(null);
+        memoryLoaded = false;
+        stringPool = new StringPool();
+        CompleteMemoryRetriever.clearCache();
+
+        if (Settings.SNAPSHOT) {
+            monitor.phaseStarted("Snapshot", 0, 0);
+            restoredFromSnapshot = RecordingSnapshot.restore(this, recordingDir, nodeInfoCache);
+        }
+        if (restoredFromSnapshot) {
+            shareConstraints();
+            indexLifetimes();
+            memoryLoaded = true;
+            monitor.treeLoaded();
+            return;
+        }
+        fileStamps = null;
+        if (Settings.SNAPSHOT) {
+            try {
+                fileStamps = RecordingSnapshot.listFileStamps(recordingDir);
+            } catch (IOException e) {
+                // the snapshot is not written then
+            }
+        }
+        setLifetimeIndex(Settings.LAZY_MEMORY ? null : new ObjectLifetimeIndex(nodes));
+        loadTree(recordingDir.resolve(TREE_DIR), monitor);
+        monitor.treeLoaded();
+        loadMemory(recordingDir.resolve(MEMORY_DIR), monitor);
+    }
+
+    /**
+     * @return true if memory of all nodes is loaded, false while it is still loading or if the loading failed.
+     */
+    public boolean isMemoryLoaded() {
+        return memoryLoaded;
+    }
+
+    /**
+     * Writes the snapshot of the loaded tree for faster opening next time.
+     * Should be called once the layout of the nodes is computed, because it is stored too. The snapshot is not
+     * written if the recorded files changed since the load started.
+     */
+    public void saveSnapshot() {
+        if (Settings.SNAPSHOT && !restoredFromSnapshot && recordingDir != null && root != null
+                && fileStamps != null) {
+            RecordingSnapshot.save(this, recordingDir, fileStamps);
+        }
+    }
+
+    /**
+     * Replaces the content of the tree by the data restored from a snapshot.
+     */
+    void restore(int roundCounter, List<String> rounds, NodeTable nodes, Set<String> memoryFiles) {
+        this.roundCounter = roundCounter;
+        this.rounds = rounds;
+        this.nodes = nodes;
+        this.root = nodes.get(1);
+        this.loadedMemoryFiles = memoryFiles;
+    }
+
+    /**
+     * Applies actions of one round recorded after the tree was loaded.
+     * Nodes which are not erased stay visible up to the new last round.
+     *
+     * @param name    name of the round.
+     * @param actions actions of the round (insert node, insert edge, erase node).
+     * @throws Exception thrown if the action is unknown.
+     */
+    public void appendRound(String name, List<JSONObject> actions) throws Exception {
+        if (openNodes == null) {
+            openNodes = new BitSet(nodes.size());
+            for (int i = 0; i < nodes.size(); ++i) {
+                if (nodes.getEndRound(i) == roundCounter) {
+                    openNodes.set(i);
+                }
+            }
+        }
+        for (JSONObject action : actions) {
+            applyTreeAction(action);
+        }
+        roundCounter++;
+        rounds.add(name);
+
+        for (int i = openNodes.nextSetBit(0); i >= 0; i = openNodes.nextSetBit(i + 1)) {
+            nodes.setEndRound(i, roundCounter);
+        }
+    }
+
+    /**
+     * Attaches memory of a node recorded after the tree was loaded.
+     *
+     * @param filePath   of the json file with the memory.
+     * @param actionJSON content of the file, in the lazy mode only the header with the action and the node id.
+     * @return false if the node is not in the tree yet.
+     * @throws Exception thrown if the action is unknown.
+     */
+    public boolean attachMemory(Path filePath, JSONObject actionJSON) throws Exception {
+        Action action = Action.parse(actionJSON.getString("action"));
+        if (action != Action.INSERT_MEMORY) {
+            return true;
+        }
+        Node node = nodes.get(actionJSON.getInt("nodeID"));
+        if (node == null) {
+            return false;
+        }
+        int parentID = node.getParent() != null ? node.getParent().getId() : -1;
+
+        ExecutionState es = node.getExecutionState();
+        if (Settings.LAZY_MEMORY) {
+            es.setNodeInfoSource(new StatesFileSource(filePath, parentState(node), stringPool), nodeInfoCache);
+        } else {
+            es.setNodeInfo(es.parseNodeInfoData(actionJSON, parentID, stringPool));
+            shareConstraints(node.getIndex());
+            indexLifetimes(node.getIndex());
+        }
+        loadedMemoryFiles.add(filePath.getFileName().toString());
+        return true;
     }
 
-    private void loadTree(Path dir) throws Exception {
+    /**
+     * @return true if the tree was restored from a snapshot together with the layout of the nodes.
+     */
+    public boolean hasLayout() {
+        return restoredFromSnapshot;
+    }
+
+    private void loadTree(Path dir, LoadMonitor monitor) throws Exception {
         roundCounter = 0;
         rounds = new ArrayList<>();
 
+        List<Path> files = listJsonFiles(dir);
+        monitor.phaseStarted("Tree", files.size(), totalSize(files));
+
+        for (Path file : files) {
+            if (monitor.isCancelled()) {
+                throw new CancellationException();
+            }
+//            System.out.println("Loading Tree file: " + file.getFileName().toString());
+            loadTreeFile(file);
+            roundCounter++;
+            rounds.add(file.getFileName().toString().replace(".json", ""));
+            monitor.fileLoaded(Files.size(file));
+        }
+
+        // set endRound for nodes without EraseNode action
+        for (int i = 0; i < nodes.size(); ++i) {
+            if (nodes.getEndRound(i) == 0) {
+                nodes.setEndRound(i, roundCounter);
+            }
+        }
+    }
+
+    private List<Path> listJsonFiles(Path dir) throws IOException {
         try (Stream<Path> paths = Files.list(dir)) {
-            paths.filter(Files::isRegularFile)
+            return paths.filter(Files::isRegularFile)
                     .filter(path -> path.getFileName().toString().endsWith(".json"))
-                    .sorted(Comparator.comparingInt(this::pathToInt))
-                    .forEach(file -> {
-                        try {
-//                            System.out.println("Loading Tree file: " + file.getFileName().toString());
-                            loadTreeFile(file);
-                        } catch (Exception e) {
-                            throw new RuntimeException(e);
-                        }
-                        roundCounter++;
-                        rounds.add(file.getFileName().toString().replace(".json", ""));
-                    });
+                    .sorted(Comparator.comparingInt(Tree::pathToInt))
+                    .toList();
         }
     }
 
+    private long totalSize(List<Path> files) throws IOException {
+        long size = 0;
+        for (Path file : files) {
+            size += Files.size(file);
+        }
+        return size;
+    }
+
     /**
      * Loads one json file and performs the actions (insert node, insert edge, erase node).
+     * Actions are decoded and applied one at a time, the whole file is never held in memory.
      *
      * @param filePath of the json file.
      * @throws Exception thrown if the action is unknown.
      */
     private void loadTreeFile(Path filePath) throws Exception {
-        String fileContent;
+        JsonStreamReader reader;
 
         try {
-            fileContent = new String(Files.readAllBytes(filePath));
+            reader = new JsonStreamReader(filePath);
         } catch (IOException e) {
 //            System.out.println("Unable to read file: " + filePath);
             return;
         }
-        JSONArray actions = new JSONArray(fileContent);
-
-        for (Object actionObj : actions) {
-            JSONObject actionJSON = (JSONObject) actionObj;
-            String actionStr = actionJSON.getString("action");
-            Action action = Action.parse(actionStr);
-
-            switch (action) {
-                case INSERT_NODE:
-                    insertNode(actionJSON);
-                    break;
-                case INSERT_EDGE:
-                    insertEdge(actionJSON);
-                    break;
-                case ERASE_NODE:
-                    eraseNode(actionJSON);
-                    break;
+
+        try (reader) {
+            while (reader.hasNext()) {
+                applyTreeAction(reader.nextObject());
             }
         }
     }
 
-    private void loadMemory(Path dir) throws Exception {
-        try (Stream<Path> paths = Files.list(dir)) {
-            paths.filter(Files::isRegularFile)
-                    .filter(path -> path.getFileName().toString().endsWith(".json"))
-                    .sorted(Comparator.comparingInt(this::pathToInt))
+    private void applyTreeAction(JSONObject actionJSON) throws Exception {
+        String actionStr = actionJSON.getString("action");
+        Action action = Action.parse(actionStr);
+
+        switch (action) {
+            case INSERT_NODE:
+                insertNode(actionJSON);
+                break;
+            case INSERT_EDGE:
+                insertEdge(actionJSON);
+                break;
+            case ERASE_NODE:
+                eraseNode(actionJSON);
+                break;
+        }
+    }
+
+    /**
+     * Result of parsing one memory file, waiting to be attached to its node. Holds either the parsed information
+     * or, in the lazy mode, the source to parse it from later.
+     */
+    private record MemoryFileData(Node node, ExecutionState.NodeInfo info, ExecutionState.NodeInfoSource source) {
+    }
+
+    /**
+     * Memory file of one node which is parsed when the node's information is accessed. The constraints share
+     * the constraints of the parent node if the parent is parsed already.
+     */
+    record StatesFileSource(Path filePath, ExecutionState parent, StringPool pool)
+            implements ExecutionState.NodeInfoSource {
+        @Override
+        public ExecutionState.NodeInfo load(ExecutionState es) {
+            String fileContent;
+
+            try {
+                fileContent = new String(Files.readAllBytes(filePath));
+            } catch (IOException e) {
+                return null;
+            }
+            if (parent == null) {
+                return es.parseNodeInfoData(new JSONObject(fileContent), -1, pool);
+            }
+            return es.parseNodeInfoData(new JSONObject(fileContent), parent.getId(), pool)
+                    .shareConstraints(parent.getCachedNodeInfo());
+        }
+    }
 
-                    .forEach(file -> {
+    /**
+     * Loads json files with memory of the nodes. The files are independent of each other, so they are parsed
+     * in parallel. The parsed data are then attached to the nodes in the order of the files. Files are processed
+     * in chunks, so the memory of the nodes becomes available while the rest is still loading.
+     * In the lazy mode only the node ids are read and the files are parsed on demand.
+     *
+     * @param dir     directory with json files.
+     * @param monitor observer of the loading.
+     * @throws Exception thrown if file can't be loaded.
+     */
+    private void loadMemory(Path dir, LoadMonitor monitor) throws Exception {
+        List<Path> files = listJsonFiles(dir);
+        monitor.phaseStarted("States", files.size(), totalSize(files));
+
+        for (int start = 0; start < files.size(); start += MEMORY_CHUNK_SIZE) {
+            List<Path> chunk = files.subList(start, Math.min(start + MEMORY_CHUNK_SIZE, files.size()));
+            List<MemoryFileData> parsedFiles = chunk.parallelStream()
+                    .map(file -> {
+                        if (monitor.isCancelled()) {
+                            throw new CancellationException();
+                        }
                         try {
 //                            System.out.println("Loading Memory file: " + file.getFileName().toString());
-                            if (Files.size(file) != 0) {
-                                loadMemoryFile(file);
+                            long size = Files.size(file);
+                            MemoryFileData data = null;
+                            if (size != 0) {
+                                data = Settings.LAZY_MEMORY ? indexMemoryFile(file) : loadMemoryFile(file);
                             }
+                            monitor.fileLoaded(size);
+                            return data;
                         } catch (Exception e) {
                             throw new RuntimeException(e);
                         }
-                    });
+                    })
+                    .toList();
+
+            for (int i = 0; i < parsedFiles.size(); ++i) {
+                MemoryFileData data = parsedFiles.get(i);
+                if (data == null) {
+                    continue;
+                }
+                loadedMemoryFiles.add(chunk.get(i).getFileName().toString());
+                if (data.info() != null) {
+                    data.node().getExecutionState().setNodeInfo(data.info());
+                    shareConstraints(data.node().getIndex());
+                    indexLifetimes(data.node().getIndex());
+                } else {
+                    data.node().getExecutionState().setNodeInfoSource(data.source(), nodeInfoCache);
+                }
+            }
+        }
+        // nodes attached before their parents share the constraints only now
+        shareConstraints();
+        memoryLoaded = true;
+    }
+
+    private void setLifetimeIndex(ObjectLifetimeIndex index) {
+        lifetimeIndex = index;
+        objectCatalog = index == null ? null : new ObjectCatalog(index);
+        CompleteMemoryRetriever.setLifetimeIndex(index);
+    }
 
+    /**
+     * Indexes the objects of all nodes restored from a snapshot. Nothing is indexed in the lazy mode.
+     */
+    private void indexLifetimes() {
+        if (Settings.LAZY_MEMORY) {
+            return;
         }
+        setLifetimeIndex(new ObjectLifetimeIndex(nodes));
+        for (int i = 0; i < nodes.size(); ++i) {
+            indexLifetimes(i);
+        }
+    }
 
-        // set endRound for nodes without EraseNode action
-        for (Node node : nodes.values()) {
-            if (node.getEndRound() == 0) {
-                node.setEndRound(roundCounter);
+    /**
+     * Records the objects added, changed and deleted by the node in the lifetime index and in the object catalog.
+     *
+     * @param node index of the node with parsed information.
+     */
+    private void indexLifetimes(int node) {
+        ExecutionState.NodeInfo info = nodes.getExecutionState(node).getLoadedNodeInfo();
+        if (lifetimeIndex != null && info != null) {
+            lifetimeIndex.add(node, info.memory());
+            objectCatalog.add(info.memory());
+        }
+    }
+
+    /**
+     * Lets the constraints of every node share the constraints of its parent. Parents are processed before their
+     * children, so the nodes of a path end up sharing one chain of constraints.
+     */
+    private void shareConstraints() {
+        if (root == null) {
+            return;
+        }
+        int[] stack = new int[nodes.size()];
+        int top = 0;
+        stack[top++] = root.getIndex();
+        while (top > 0) {
+            int node = stack[--top];
+            shareConstraints(node);
+            if (nodes.getRight(node) != NodeTable.NONE) {
+                stack[top++] = nodes.getRight(node);
             }
+            if (nodes.getLeft(node) != NodeTable.NONE) {
+                stack[top++] = nodes.getLeft(node);
+            }
+        }
+    }
+
+    /**
+     * Replaces the constraints of the node by a sequence which shares the constraints of its parent.
+     * Nothing changes unless the information of both nodes is already parsed.
+     *
+     * @param node index of the node.
+     */
+    private void shareConstraints(int node) {
+        int parent = nodes.getParent(node);
+        if (parent == NodeTable.NONE) {
+            return;
         }
+        ExecutionState es = nodes.getExecutionState(node);
+        ExecutionState.NodeInfo info = es.getLoadedNodeInfo();
+        ExecutionState.NodeInfo parentInfo = nodes.getExecutionState(parent).getLoadedNodeInfo();
+        if (info == null || parentInfo == null) {
+            return;
+        }
+        ExecutionState.NodeInfo shared = info.shareConstraints(parentInfo);
+        if (shared != info) {
+            es.setNodeInfo(shared);
+        }
+    }
 
+    private static ExecutionState parentState(Node node) {
+        return node.getParent() != null ? node.getParent().getExecutionState() : null;
     }
 
     /**
-     * Loads one json file and performs the insert memory action.
+     * Loads one json file with the insert memory action. Does not modify the tree, so it can be called
+     * from multiple threads at once.
      *
      * @param filePath of the json file.
+     * @return parsed memory of the node or null if there is nothing to insert.
      * @throws Exception thrown if the action is unknown.
      */
-    private void loadMemoryFile(Path filePath) throws Exception {
+    private MemoryFileData loadMemoryFile(Path filePath) throws Exception {
         String fileContent;
 
         try {
             fileContent = new String(Files.readAllBytes(filePath));
         } catch (IOException e) {
 //            System.out.println("Unable to read file: " + filePath);
-            return;
+            return null;
         }
         JSONObject actionJSON = new JSONObject(fileContent);
         String actionStr = actionJSON.getString("action");
         Action action = Action.parse(actionStr);
 
-        if (action == Action.INSERT_MEMORY) {
-            insertMemory(actionJSON);
+        if (action != Action.INSERT_MEMORY) {
+            return null;
         }
+        return parseMemory(actionJSON);
     }
 
-    private int pathToInt(final Path path) {
+    /**
+     * Reads only the header of one json file with the insert memory action. The rest of the file is parsed
+     * when the node's information is accessed.
+     *
+     * @param filePath of the json file.
+     * @return source of the node's memory or null if there is nothing to insert.
+     * @throws Exception thrown if the action is unknown.
+     */
+    private MemoryFileData indexMemoryFile(Path filePath) throws Exception {
+        JSONObject header;
+
+        try (JsonStreamReader reader = new JsonStreamReader(filePath)) {
+            header = reader.readHeader(MEMORY_HEADER_KEYS);
+        } catch (IOException e) {
+            return null;
+        }
+        Action action = Action.parse(header.getString("action"));
+
+        if (action != Action.INSERT_MEMORY) {
+            return null;
+        }
+        Node node = nodes.get(header.getInt("nodeID"));
+        if (node == null) {
+            // written by a still running JetKlee after the round files were listed
+            return null;
+        }
+        return new MemoryFileData(node, null, new StatesFileSource(filePath, parentState(node), stringPool));
+    }
+
+    static int pathToInt(final Path path) {
         return Integer.parseInt(path.getFileName()
                 .toString()
                 .replace(".json", "")
@@ -174,49 +584,60 @@ public class Tree {
     private void insertNode(JSONObject actionJSON) {
         int nodeID = actionJSON.getInt("nodeID");
 
-        Node node = new Node(nodeID);
-        node.setStartRound(roundCounter);
+        int index = nodes.add(nodeID);
+        nodes.setStartRound(index, roundCounter);
         if (nodeID == 1) {
-            root = node;
+            root = nodes.node(index);
+        }
+        if (openNodes != null) {
+            openNodes.set(index);
         }
-        nodes.put(nodeID, node);
 
-        node.setExecutionState(new ExecutionState(actionJSON, nodeID));
+        nodes.setExecutionState(index, new ExecutionState(actionJSON, nodeID, stringPool));
     }
 
-    private void insertMemory(JSONObject actionJSON) {
+    private MemoryFileData parseMemory(JSONObject actionJSON) {
         int nodeID = actionJSON.getInt("nodeID");
 
         Node node = nodes.get(nodeID);
+        if (node == null) {
+            // written by a still running JetKlee after the round files were listed
+            return null;
+        }
         int parentID = node.getParent() != null ? node.getParent().getId() : -1;
 
         ExecutionState es = node.getExecutionState();
-        es.setNodeInfoData(actionJSON, parentID);
-        node.setExecutionState(es);
+        return new MemoryFileData(node, es.parseNodeInfoData(actionJSON, parentID, stringPool), null);
     }
 
     private void insertEdge(JSONObject actionJSON) {
         int parentID = actionJSON.getInt("parentID");
         int childID = actionJSON.getInt("nodeID");
 
-        Node parent = nodes.get(parentID);
-        Node child = nodes.get(childID);
+        int parent = nodes.indexOf(parentID);
+        int child = nodes.indexOf(childID);
 
         // Left child is inserted first
-        if (parent.getLeft() == null) {
-            parent.setLeft(child);
+        if (nodes.getLeft(parent) == NodeTable.NONE) {
+            nodes.setLeft(parent, child);
         }
         else {
-            parent.setRight(child);
+            nodes.setRight(parent, child);
+        }
+        nodes.setParent(child, parent);
+        if (lifetimeIndex != null) {
+            lifetimeIndex.structureChanged();
         }
-        child.setParent(parent);
     }
 
     private void eraseNode(JSONObject actionJSON) {
         int nodeID = actionJSON.getInt("nodeID");
 
-        Node node = nodes.get(nodeID);
-        node.setEndRound(roundCounter);
+        int index = nodes.indexOf(nodeID);
+        nodes.setEndRound(index, roundCounter);
+        if (openNodes != null) {
+            openNodes.clear(index);
+        }
     }
 
     public int getRoundCounter() {
@@ -227,11 +648,36 @@ public class Tree {
         return root;
     }
 
-    public HashMap<Integer, Node> getNodes() {
+    /**
+     * @return catalog of the memory objects of the tree or null in the lazy memory mode.
+     */
+    public ObjectCatalog getObjectCatalog() {
+        return objectCatalog;
+    }
+
+    /**
+     * @return pool which deduplicates the strings of the nodes of the loaded recording.
+     */
+    public StringPool getStringPool() {
+        return stringPool;
+    }
+
+    public NodeTable getNodes() {
         return nodes;
     }
 
     public List<String> getRounds() {
         return rounds;
     }
+
+    public Path getRecordingDir() {
+        return recordingDir;
+    }
+
+    /**
+     * @return names of the non-empty memory files which are already attached to the nodes.
+     */
+    public Set<String> getLoadedMemoryFiles() {
+        return loadedMemoryFiles;
+    }
 }
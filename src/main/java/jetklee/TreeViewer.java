@@ -4,8 +4,13 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static jetklee.Styles.*;
 
@@ -19,12 +24,30 @@ public class TreeViewer extends JPanel {
     private int selectedRound;
     private Node selectedNode;
     private Tree tree;
+    // size of the panel in each round, null if it is computed when the round is selected
     private List<Dimension> areas;
+    // set when the layout computed by computeNodeLocations moves a node
+    private boolean layoutChanged;
+    private LayoutIndex layoutIndex;
+    // lowest y-coordinate and count of the nodes drawn in the subtree of each node in the round of the statistics
+    private int[] subtreeBottoms;
+    private int[] subtreeCounts;
+    private int statisticsRound;
+    // first round and the round after the last one in which each node is drawn
+    private int[] drawnStarts;
+    private int[] drawnEnds;
+    private RoundEventIndex roundEvents;
+    // nodes drawn in the selected round
+    private BitSet drawnNodes;
+    private final TileCache tileCache;
     private Rectangle viewRect;
     private static Font font = makeFont(1.0f);
     private static final float MIN_ZOOM = 0.0f;
     private static final float MAX_ZOOM = 1.5f;
     private static final float TEXT_ZOOM_LIMIT = 0.2f;
+    // below the zoom, subtrees narrower than the width in pixels are drawn as one glyph
+    private static final float DETAIL_ZOOM_LIMIT = 0.2f;
+    private static final int DETAIL_MIN_WIDTH = 4;
     private static final int BORDER_SIZE = 100;
     private static final int NODE_SEPARATOR_HORIZONTAL = 25;
     private static final int NODE_SEPARATOR_VERTICAL = 200;
@@ -32,6 +55,14 @@ public class TreeViewer extends JPanel {
     private static final int NODE_HEIGHT = 50;
     private static final float EDGE_THICKNESS = 2.3f;
 
+    /**
+     * Everything the drawing of the tree depends on. It is captured when the panel is painted, so tiles can be
+     * drawn on background threads while the zoom or the selected round change.
+     */
+    private record Scene(NodeTable nodes, int root, int round, float zoom, double scale, Font font,
+                         RenderingHints hints, int[] subtreeBottoms, int[] subtreeCounts) {
+    }
+
     /**
      * Enables mouse dragging to navigate through the process tree displayed in the tree panel.
      *
@@ -44,6 +75,9 @@ public class TreeViewer extends JPanel {
         selectedRound = 0;
         areas = new ArrayList<>();
         viewRect = null;
+        layoutIndex = null;
+        statisticsRound = -1;
+        tileCache = new TileCache(Settings.TILE_CACHE_SIZE * 1024L * 1024L);
 
         setAutoscrolls(true);
         MouseAdapter ma = createMouseAdapter();
@@ -102,24 +136,69 @@ public class TreeViewer extends JPanel {
     }
 
     /**
-     * Checks which node was clicked.
+     * Checks which node was clicked. Only the nodes located near the click are checked, they are found
+     * in the spatial index of the layout.
      *
      * @param clickX x coordinate of the click on the JPanel.
      * @param clickY y coordinate of the click on the JPanel.
      * @return clicked node or null.
      */
     public Node onMouseClicked(int clickX, int clickY) {
-        for (Node node : tree.getNodes().values()) {
-            int rectX = Math.round(zoom * (node.getViewProps().getX() - NODE_WIDTH / 2));
-            int rectY = Math.round(zoom * (node.getViewProps().getY() - NODE_HEIGHT / 2));
+        if (layoutIndex == null) return null;
+        NodeTable nodes = tree.getNodes();
+        int[] clicked = {NodeTable.NONE};
+        // the bounds cover rounding of the zoomed rectangles of the nodes
+        forEachNodeNear(clickX - 1, clickY - 1, clickX + 1, clickY + 1, node -> {
+            int rectX = Math.round(zoom * (nodes.getX(node) - NODE_WIDTH / 2));
+            int rectY = Math.round(zoom * (nodes.getY(node) - NODE_HEIGHT / 2));
             boolean isInNode = (rectX <= clickX && clickX <= rectX + zoom * NODE_WIDTH)
                     && (rectY <= clickY && clickY <= rectY + zoom * NODE_HEIGHT);
 
-            if (isVisibleNode(node, selectedRound) && isInNode) {
-                return node;
+            if (isDrawnNode(node) && isInNode
+                    && (clicked[0] == NodeTable.NONE || node < clicked[0])) {
+                clicked[0] = node;
+            }
+        });
+        return nodes.node(clicked[0]);
+    }
+
+    /**
+     * Finds the nodes visible in the selected round whose rectangle intersects the given rectangle of the JPanel.
+     *
+     * @param rect rectangle on the JPanel.
+     * @return nodes in the rectangle.
+     */
+    public List<Node> getNodesInRect(Rectangle rect) {
+        List<Node> result = new ArrayList<>();
+        if (layoutIndex == null) return result;
+        NodeTable nodes = tree.getNodes();
+        forEachNodeNear(rect.x, rect.y, rect.x + rect.width, rect.y + rect.height, node -> {
+            Rectangle nodeRect = new Rectangle(
+                    Math.round(zoom * (nodes.getX(node) - NODE_WIDTH / 2)),
+                    Math.round(zoom * (nodes.getY(node) - NODE_HEIGHT / 2)),
+                    Math.round(zoom * NODE_WIDTH),
+                    Math.round(zoom * NODE_HEIGHT));
+            if (isDrawnNode(node) && nodeRect.intersects(rect)) {
+                result.add(nodes.node(node));
             }
+        });
+        return result;
+    }
+
+    /**
+     * Finds the nodes whose rectangle may intersect the given rectangle of the JPanel.
+     */
+    private void forEachNodeNear(int minX, int minY, int maxX, int maxY, LayoutIndex.NodeConsumer consumer) {
+        if (zoom <= 0) {
+            layoutIndex.forEachNode(Long.MIN_VALUE, Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, consumer);
+            return;
         }
-        return null;
+        layoutIndex.forEachNode(
+                (long) Math.floor(minX / zoom) - NODE_WIDTH,
+                (long) Math.floor(minY / zoom) - NODE_HEIGHT,
+                (long) Math.ceil(maxX / zoom) + NODE_WIDTH,
+                (long) Math.ceil(maxY / zoom) + NODE_HEIGHT,
+                consumer);
     }
 
     /**
@@ -127,16 +206,19 @@ public class TreeViewer extends JPanel {
      * Scrolls the view to make the tree root visible.
      */
     public void load() {
+        tileCache.invalidate();
+        areas.clear();
+        layoutIndex = null;
+        statisticsRound = -1;
+        roundEvents = null;
+        drawnNodes = null;
         if (tree.getRoot() == null) return;
-        computeNodeLocations(tree.getRoot(), BORDER_SIZE + NODE_WIDTH / 2, 0);
-
-        for (int i = 0; i < tree.getRoundCounter(); ++i) {
-            Dimension area = new Dimension(0, 0);
-            computeAreas(tree.getRoot(), i, area);
-            area.width += BORDER_SIZE;
-            area.height += BORDER_SIZE;
-            areas.add(area);
+        if (!tree.hasLayout()) {
+            computeNodeLocations(tree.getRoot().getIndex(), BORDER_SIZE + NODE_WIDTH / 2, 0);
         }
+        layoutIndex = new LayoutIndex(tree.getNodes(), tree.getRoot().getIndex());
+
+        computeAreas(0);
         updateArea();
 
         SwingUtilities.invokeLater(new Runnable() {
@@ -152,10 +234,38 @@ public class TreeViewer extends JPanel {
         });
     }
 
+    /**
+     * Updates the view after rounds were appended to the tree. Node locations are computed again, because new
+     * leaves shift the nodes on their right. Appended rounds do not change which nodes are visible in the old
+     * rounds, so areas are computed only for the new rounds. If a node drawn in the old rounds moved, the areas
+     * of the old rounds are computed again when the rounds are selected.
+     */
+    public void extend() {
+        if (tree.getRoot() == null) return;
+        tileCache.invalidate();
+        layoutChanged = false;
+        computeNodeLocations(tree.getRoot().getIndex(), BORDER_SIZE + NODE_WIDTH / 2, 0);
+        layoutIndex = new LayoutIndex(tree.getNodes(), tree.getRoot().getIndex());
+        statisticsRound = -1;
+
+        int computedRounds = areas.size();
+        computeAreas(computedRounds);
+        if (layoutChanged) {
+            for (int round = 0; round < computedRounds; ++round) {
+                areas.set(round, null);
+            }
+        }
+        updateArea();
+    }
+
     /**
      * Updates tree panel based on selected round and level of zoom.
      */
     public void updateArea() {
+        if (selectedRound >= areas.size()) return;
+        if (areas.get(selectedRound) == null) {
+            areas.set(selectedRound, computeDrawnArea());
+        }
         Dimension area = areas.get(selectedRound);
         setPreferredSize(new Dimension(Math.round(zoom * area.width), Math.round(zoom * area.height)));
         revalidate();
@@ -163,7 +273,7 @@ public class TreeViewer extends JPanel {
     }
 
     /**
-     * Customize rendering of the tree panel. Scrolls to visible rectangle and draws the tree.
+     * Customize rendering of the tree panel. Scrolls to visible rectangle and draws the tree from the cached tiles.
      *
      * @param g the Graphics object used for painting.
      */
@@ -175,21 +285,93 @@ public class TreeViewer extends JPanel {
         }
         if (tree.getRoot() != null) {
             Graphics2D g2d = (Graphics2D) g;
-            g2d.setFont(font);
 
             String os = System.getProperty("os.name").toLowerCase();
             // antialiasing causes problems on Linux
             if (os.contains("win")) {
                 g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
             }
-            g2d.setStroke(new BasicStroke(EDGE_THICKNESS));
-            drawSubTree(g2d, tree.getRoot(), getVisibleRect());
-            if (selectedNode != null && isVisibleNode(selectedNode, selectedRound)) {
+            if (zoom < DETAIL_ZOOM_LIMIT && statisticsRound != selectedRound) {
+                computeSubtreeStatistics();
+            }
+            Scene scene = new Scene(tree.getNodes(), tree.getRoot().getIndex(), selectedRound, zoom,
+                    g2d.getTransform().getScaleX(), font, g2d.getRenderingHints(), subtreeBottoms, subtreeCounts);
+            drawTiles(g2d, scene);
+            if (selectedNode != null && isDrawnNode(selectedNode.getIndex())) {
+                g2d.setStroke(new BasicStroke(EDGE_THICKNESS));
                 drawCross(g, selectedNode);
             }
         }
     }
 
+    /**
+     * Draws the tiles covering the repainted part of the panel. Missing tiles are drawn at once, the tiles around
+     * the visible rectangle are drawn in advance on background threads, so scrolling finds them in the cache.
+     */
+    private void drawTiles(Graphics2D g2d, Scene scene) {
+        int size = TileCache.TILE_SIZE;
+        Rectangle visibleRect = getVisibleRect();
+        if (visibleRect.isEmpty()) return;
+        Rectangle clip = g2d.getClipBounds();
+        int minX = Math.floorDiv(visibleRect.x, size);
+        int minY = Math.floorDiv(visibleRect.y, size);
+        int maxX = Math.floorDiv(visibleRect.x + visibleRect.width - 1, size);
+        int maxY = Math.floorDiv(visibleRect.y + visibleRect.height - 1, size);
+        int lastX = Math.floorDiv(getWidth() - 1, size);
+        int lastY = Math.floorDiv(getHeight() - 1, size);
+
+        Set<TileCache.Tile> wanted = new HashSet<>();
+        List<TileCache.Tile> prefetched = new ArrayList<>();
+        for (int tileY = Math.max(0, minY - 1); tileY <= Math.min(lastY, maxY + 1); ++tileY) {
+            for (int tileX = Math.max(0, minX - 1); tileX <= Math.min(lastX, maxX + 1); ++tileX) {
+                TileCache.Tile tile = new TileCache.Tile(scene.round(), scene.zoom(), scene.scale(), tileX, tileY);
+                wanted.add(tile);
+                if (tileX < minX || tileX > maxX || tileY < minY || tileY > maxY) {
+                    prefetched.add(tile);
+                    continue;
+                }
+                if (clip != null && !clip.intersects(tileX * size, tileY * size, size, size)) {
+                    continue;
+                }
+                BufferedImage image = tileCache.get(tile);
+                if (image == null) {
+                    image = renderTile(scene, tile);
+                    tileCache.put(tile, image);
+                }
+                g2d.drawImage(image, tileX * size, tileY * size, size, size, null);
+            }
+        }
+        tileCache.setWanted(wanted);
+        for (TileCache.Tile tile : prefetched) {
+            tileCache.prefetch(tile, t -> renderTile(scene, t));
+        }
+    }
+
+    /**
+     * Draws a tile of the tree into an image. The drawn nodes are chosen by the rectangle of the tile enlarged
+     * by the width of two nodes, so the nodes, labels and edges crossing the border of the tile are drawn too.
+     */
+    private static BufferedImage renderTile(Scene scene, TileCache.Tile tile) {
+        int size = TileCache.TILE_SIZE;
+        int pixels = (int) Math.ceil(size * scene.scale());
+        BufferedImage image = new BufferedImage(pixels, pixels, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.setRenderingHints(scene.hints());
+            g2d.scale(scene.scale(), scene.scale());
+            g2d.translate(-tile.x() * size, -tile.y() * size);
+            g2d.setFont(scene.font());
+            g2d.setStroke(new BasicStroke(EDGE_THICKNESS));
+            Rectangle rect = new Rectangle(tile.x() * size, tile.y() * size, size, size);
+            int margin = (int) Math.ceil(scene.zoom() * 2 * NODE_WIDTH + EDGE_THICKNESS);
+            rect.grow(margin, margin);
+            drawSubTree(g2d, scene, rect);
+        } finally {
+            g2d.dispose();
+        }
+        return image;
+    }
+
     private void drawCross(Graphics g, Node node) {
         Graphics2D g2d = (Graphics2D) g;
         g2d.setColor(CROSS_COLOR);
@@ -203,130 +385,663 @@ public class TreeViewer extends JPanel {
     }
 
     /**
-     * Recursively computes coordinates of the tree node on the JPanel.
+     * Computes coordinates of the tree nodes on the JPanel. Children are placed before their parents, the traversal
+     * keeps its own stack, so its depth is not limited by the stack of the thread.
      *
-     * @param node  root of the tree for which coordinates are computed.
-     * @param minX  minimal x-coordinate of the node's subtree.
-     * @param depth depth of the node in the tree.
+     * @param root  index of the root of the tree for which coordinates are computed.
+     * @param minX  minimal x-coordinate of the root's subtree.
+     * @param depth depth of the root in the tree.
      * @return the minimum x-coordinate in the subtree.
      */
-    private int computeNodeLocations(Node node, int minX, int depth) {
-        if (node.getLeft() != null && node.getRight() != null) {
-            minX = Math.max(minX, computeNodeLocations(node.getLeft(), minX, depth + 1));
-            minX = Math.max(minX, computeNodeLocations(node.getRight(), minX + NODE_WIDTH + NODE_SEPARATOR_HORIZONTAL, depth + 1));
-            node.getViewProps().setX((node.getLeft().getViewProps().getX() + node.getRight().getViewProps().getX()) / 2);
+    private int computeNodeLocations(int root, int minX, int depth) {
+        NodeTable nodes = tree.getNodes();
+        TraversalStack stack = new TraversalStack();
+        stack.push(root, minX);
+        // minimum x-coordinate in the subtree of the last finished node
+        int result = minX;
+
+        while (!stack.isEmpty()) {
+            int node = stack.topNode();
+            int left = nodes.getLeft(node);
+            int right = nodes.getRight(node);
+            int nodeDepth = depth + stack.size() - 1;
+
+            if (left != NodeTable.NONE && right != NodeTable.NONE) {
+                switch (stack.topStage()) {
+                    case 0 -> {
+                        stack.setTopStage(1);
+                        stack.push(left, stack.topValue());
+                        continue;
+                    }
+                    case 1 -> {
+                        stack.setTopValue(Math.max(stack.topValue(), result));
+                        stack.setTopStage(2);
+                        stack.push(right, stack.topValue() + NODE_WIDTH + NODE_SEPARATOR_HORIZONTAL);
+                        continue;
+                    }
+                    default -> {
+                        stack.setTopValue(Math.max(stack.topValue(), result));
+                        setLocation(nodes, node, (nodes.getX(left) + nodes.getX(right)) / 2, nodeDepth);
 
-            node.getViewProps().setSubTreeMinX(node.getLeft().getViewProps().getSubTreeMinX());
-            node.getViewProps().setSubTreeMaxX(node.getRight().getViewProps().getSubTreeMaxX());
-        } else {
-            node.getViewProps().setX(minX);
-            node.getViewProps().setSubTreeMinX(minX - NODE_WIDTH / 2 - NODE_SEPARATOR_HORIZONTAL / 2);
-            node.getViewProps().setSubTreeMaxX(minX + NODE_WIDTH / 2 + NODE_SEPARATOR_HORIZONTAL / 2);
+                        nodes.setSubTreeMinX(node, nodes.getSubTreeMinX(left));
+                        nodes.setSubTreeMaxX(node, nodes.getSubTreeMaxX(right));
+                    }
+                }
+            } else {
+                int x = stack.topValue();
+                setLocation(nodes, node, x, nodeDepth);
+                nodes.setSubTreeMinX(node, x - NODE_WIDTH / 2 - NODE_SEPARATOR_HORIZONTAL / 2);
+                nodes.setSubTreeMaxX(node, x + NODE_WIDTH / 2 + NODE_SEPARATOR_HORIZONTAL / 2);
+            }
+
+            result = stack.topValue();
+            stack.pop();
         }
+        return result;
+    }
 
-        node.getViewProps().setY(BORDER_SIZE + depth * (NODE_HEIGHT + NODE_SEPARATOR_VERTICAL));
-        return minX;
+    /**
+     * Sets coordinates of the node and records whether a node drawn in the rounds with computed areas moved.
+     */
+    private void setLocation(NodeTable nodes, int node, int x, int depth) {
+        int y = BORDER_SIZE + depth * (NODE_HEIGHT + NODE_SEPARATOR_VERTICAL);
+        if (nodes.getStartRound(node) < areas.size() && (nodes.getX(node) != x || nodes.getY(node) != y)) {
+            layoutChanged = true;
+        }
+        nodes.setX(node, x);
+        nodes.setY(node, y);
     }
 
     /**
-     * Recursively computes size of JPanel for given round.
+     * Computes size of JPanel for the rounds from the given one to the last one in a single sweep over the rounds.
+     * A node is drawn in the rounds in which it and all its ancestors are visible, which is the intersection of
+     * their intervals of rounds. The nodes are sorted by the first round of their interval, and the sweep keeps
+     * the nodes drawn in the current round in heaps ordered by their x and y coordinates. Nodes whose interval
+     * ended are removed from the top of the heaps only when they get there. The intervals are kept and indexed
+     * by rounds for finding the nodes and tiles which differ in two rounds.
      *
-     * @param node  root of the tree for which the size is computed.
-     * @param round round for which the size is computed.
-     * @param area  stores the result of the computation.
+     * @param firstRound first round whose area is computed, areas of the earlier rounds are kept.
      */
-    private void computeAreas(Node node, int round, Dimension area) {
-        if (node == null || !isVisibleNode(node, round)) return;
+    private void computeAreas(int firstRound) {
+        NodeTable nodes = tree.getNodes();
+        int roundCount = tree.getRoundCounter();
+        while (areas.size() > firstRound) {
+            areas.remove(areas.size() - 1);
+        }
 
-        computeAreas(node.getLeft(), round, area);
-        computeAreas(node.getRight(), round, area);
+        // intervals of rounds in which the nodes are drawn, parents are computed before their children
+        int[] starts = new int[nodes.size()];
+        int[] ends = new int[nodes.size()];
+        int root = tree.getRoot().getIndex();
+        starts[root] = nodes.getStartRound(root);
+        ends[root] = nodes.getEndRound(root);
+        TraversalStack stack = new TraversalStack();
+        stack.push(root, 0);
+        while (!stack.isEmpty()) {
+            int node = stack.topNode();
+            stack.pop();
+            for (int child : new int[]{nodes.getLeft(node), nodes.getRight(node)}) {
+                if (child == NodeTable.NONE) continue;
+                starts[child] = Math.max(nodes.getStartRound(child), starts[node]);
+                ends[child] = Math.min(nodes.getEndRound(child), ends[node]);
+                stack.push(child, 0);
+            }
+        }
+        drawnStarts = starts;
+        drawnEnds = ends;
+        roundEvents = new RoundEventIndex(starts, ends, roundCount);
+        drawnNodes = new BitSet(nodes.size());
+        for (int node = 0; node < nodes.size(); ++node) {
+            if (isDrawn(node, selectedRound)) {
+                drawnNodes.set(node);
+            }
+        }
+        if (firstRound >= roundCount) return;
 
-        area.width = Math.max(area.width, node.getViewProps().getX() + NODE_WIDTH / 2);
-        area.height = Math.max(area.height, node.getViewProps().getY() + NODE_HEIGHT / 2);
+        // nodes drawn in the computed rounds bucketed by the first of those rounds in which they are drawn
+        int[] bucketStarts = new int[roundCount - firstRound + 1];
+        for (int node = 0; node < nodes.size(); ++node) {
+            if (isSwept(node, starts, ends, firstRound, roundCount)) {
+                ++bucketStarts[Math.max(starts[node], firstRound) - firstRound + 1];
+            }
+        }
+        for (int i = 1; i < bucketStarts.length; ++i) {
+            bucketStarts[i] += bucketStarts[i - 1];
+        }
+        int[] sorted = new int[bucketStarts[bucketStarts.length - 1]];
+        int[] filled = Arrays.copyOf(bucketStarts, bucketStarts.length - 1);
+        for (int node = 0; node < nodes.size(); ++node) {
+            if (isSwept(node, starts, ends, firstRound, roundCount)) {
+                sorted[filled[Math.max(starts[node], firstRound) - firstRound]++] = node;
+            }
+        }
+
+        MaxHeap rightmost = new MaxHeap();
+        MaxHeap lowest = new MaxHeap();
+        int next = 0;
+        for (int round = firstRound; round < roundCount; ++round) {
+            for (; next < bucketStarts[round - firstRound + 1]; ++next) {
+                rightmost.push(nodes.getX(sorted[next]), sorted[next]);
+                lowest.push(nodes.getY(sorted[next]), sorted[next]);
+            }
+            while (!rightmost.isEmpty() && ends[rightmost.topNode()] <= round) {
+                rightmost.pop();
+            }
+            while (!lowest.isEmpty() && ends[lowest.topNode()] <= round) {
+                lowest.pop();
+            }
+            Dimension area = new Dimension(0, 0);
+            if (!rightmost.isEmpty()) {
+                area.width = rightmost.topValue() + NODE_WIDTH / 2;
+                area.height = lowest.topValue() + NODE_HEIGHT / 2;
+            }
+            area.width += BORDER_SIZE;
+            area.height += BORDER_SIZE;
+            areas.add(area);
+        }
     }
 
-    private boolean isVisibleNode(Node node, int round) {
-        return node.getStartRound() <= round && round < node.getEndRound();
+    /**
+     * @return size of JPanel for the selected round, computed from the nodes drawn in it.
+     */
+    private Dimension computeDrawnArea() {
+        NodeTable nodes = tree.getNodes();
+        Dimension area = new Dimension(0, 0);
+        for (int node = drawnNodes.nextSetBit(0); node >= 0; node = drawnNodes.nextSetBit(node + 1)) {
+            area.width = Math.max(area.width, nodes.getX(node) + NODE_WIDTH / 2);
+            area.height = Math.max(area.height, nodes.getY(node) + NODE_HEIGHT / 2);
+        }
+        area.width += BORDER_SIZE;
+        area.height += BORDER_SIZE;
+        return area;
+    }
+
+    private static boolean isSwept(int node, int[] starts, int[] ends, int firstRound, int roundCount) {
+        return starts[node] < ends[node] && ends[node] > firstRound && starts[node] < roundCount;
+    }
+
+    private boolean isVisibleNode(int node, int round) {
+        return isVisibleNode(tree.getNodes(), node, round);
+    }
+
+    /**
+     * @return true if the node and all its ancestors are visible in the selected round.
+     */
+    private boolean isDrawnNode(int node) {
+        if (drawnNodes == null) {
+            return isVisibleNode(node, selectedRound);
+        }
+        return node != NodeTable.NONE && drawnNodes.get(node);
+    }
+
+    private static boolean isVisibleNode(NodeTable nodes, int node, int round) {
+        return node != NodeTable.NONE && nodes.getStartRound(node) <= round && round < nodes.getEndRound(node);
     }
 
-    private void drawChild(Graphics2D g2d, Node child) {
+    private static void drawChild(Graphics2D g2d, Scene scene, int child) {
+        NodeTable nodes = scene.nodes();
+        float zoom = scene.zoom();
+        int parent = nodes.getParent(child);
         g2d.drawLine(
-                Math.round(zoom * child.getParent().getViewProps().getX()),
-                Math.round(zoom * (child.getParent().getViewProps().getY() + NODE_HEIGHT / 2)),
-                Math.round(zoom * child.getViewProps().getX()),
-                Math.round(zoom * (child.getViewProps().getY() - NODE_HEIGHT / 2))
+                Math.round(zoom * nodes.getX(parent)),
+                Math.round(zoom * (nodes.getY(parent) + NODE_HEIGHT / 2)),
+                Math.round(zoom * nodes.getX(child)),
+                Math.round(zoom * (nodes.getY(child) - NODE_HEIGHT / 2))
         );
-        drawSubTree(g2d, child, getVisibleRect());
     }
 
     /**
-     * Recursively draws visible parts of the process tree.
+     * Draws visible parts of the process tree. The edges to the children of a node are drawn together with
+     * the subtrees of the children, the node is drawn after them. The traversal keeps its own stack, so its depth
+     * is not limited by the stack of the thread.
      *
      * @param g2d         graphics component on which the tree is drawn.
-     * @param node        root of the tree which is drawn.
-     * @param visibleRect part of the JPanel which is currently visible on the screen.
+     * @param scene       drawn tree, round and zoom.
+     * @param visibleRect part of the JPanel which is drawn.
      */
-    private void drawSubTree(Graphics2D g2d, Node node, Rectangle visibleRect) {
-        if (!isVisibleNode(node, selectedRound)) return;
-        // whole subtree on left or right side of the visible rectangle
-        if (zoom * node.getViewProps().getSubTreeMinX() > visibleRect.x + visibleRect.width ||
-                zoom * node.getViewProps().getSubTreeMaxX() < visibleRect.x)
-            return;
-        // whole subtree under the visible rectangle
-        if (zoom * (node.getViewProps().getY() - NODE_HEIGHT / 2) > visibleRect.y + visibleRect.height)
-            return;
-        // node above the visible rectangle
-        if (zoom * (node.getViewProps().getY() + NODE_HEIGHT + NODE_SEPARATOR_VERTICAL) < visibleRect.y) {
-            // decide for children
-            if (node.getLeft() != null && isVisibleNode(node.getLeft(), selectedRound))
-                drawSubTree(g2d, node.getLeft(), getVisibleRect());
-            if (node.getRight() != null && isVisibleNode(node.getRight(), selectedRound))
-                drawSubTree(g2d, node.getRight(), getVisibleRect());
-            return;
-        }
+    private static void drawSubTree(Graphics2D g2d, Scene scene, Rectangle visibleRect) {
+        NodeTable nodes = scene.nodes();
+        float zoom = scene.zoom();
+        int round = scene.round();
+        int[] subtreeCounts = scene.subtreeCounts();
+        TraversalStack stack = new TraversalStack();
+        stack.push(scene.root(), 0);
 
-        if (node.getLeft() != null && isVisibleNode(node.getLeft(), selectedRound)) {
-            g2d.setColor(DELETIONS_COLOR);
-            drawChild(g2d, node.getLeft());
-        }
-        if (node.getRight() != null && isVisibleNode(node.getRight(), selectedRound)) {
-            g2d.setColor(ADDITIONS_COLOR);
-            drawChild(g2d, node.getRight());
+        while (!stack.isEmpty()) {
+            int node = stack.topNode();
+            int x = nodes.getX(node);
+            int y = nodes.getY(node);
+            int left = nodes.getLeft(node);
+            int right = nodes.getRight(node);
+
+            switch (stack.topStage()) {
+                case 0 -> {
+                    if (!isVisibleNode(nodes, node, round)) {
+                        stack.pop();
+                        continue;
+                    }
+                    // whole subtree on left or right side of the visible rectangle
+                    if (zoom * nodes.getSubTreeMinX(node) > visibleRect.x + visibleRect.width ||
+                            zoom * nodes.getSubTreeMaxX(node) < visibleRect.x) {
+                        stack.pop();
+                        continue;
+                    }
+                    // whole subtree under the visible rectangle
+                    if (zoom * (y - NODE_HEIGHT / 2) > visibleRect.y + visibleRect.height) {
+                        stack.pop();
+                        continue;
+                    }
+                    // narrow subtree with more nodes is drawn as one glyph
+                    if (zoom < DETAIL_ZOOM_LIMIT && subtreeCounts[node] > 1 &&
+                            zoom * (nodes.getSubTreeMaxX(node) - nodes.getSubTreeMinX(node)) < DETAIL_MIN_WIDTH) {
+                        stack.pop();
+                        drawSubtreeGlyph(g2d, scene, node);
+                        continue;
+                    }
+                    // node above the visible rectangle
+                    if (zoom * (y + NODE_HEIGHT + NODE_SEPARATOR_VERTICAL) < visibleRect.y) {
+                        // decide for children
+                        stack.pop();
+                        if (isVisibleNode(nodes, right, round))
+                            stack.push(right, 0);
+                        if (isVisibleNode(nodes, left, round))
+                            stack.push(left, 0);
+                        continue;
+                    }
+                    stack.setTopStage(1);
+                    if (isVisibleNode(nodes, left, round)) {
+                        g2d.setColor(DELETIONS_COLOR);
+                        drawChild(g2d, scene, left);
+                        stack.push(left, 0);
+                    }
+                }
+                case 1 -> {
+                    stack.setTopStage(2);
+                    if (isVisibleNode(nodes, right, round)) {
+                        g2d.setColor(ADDITIONS_COLOR);
+                        drawChild(g2d, scene, right);
+                        stack.push(right, 0);
+                    }
+                }
+                default -> {
+                    stack.pop();
+                    g2d.setColor(BLACK_COLOR);
+                    g2d.drawRect(
+                            Math.round(zoom * (x - NODE_WIDTH / 2)),
+                            Math.round(zoom * (y - NODE_HEIGHT / 2)),
+                            Math.round(zoom * NODE_WIDTH),
+                            Math.round(zoom * NODE_HEIGHT)
+                    );
+
+                    if (zoom >= TEXT_ZOOM_LIMIT) {
+                        g2d.drawString(
+                                Integer.toString(nodes.getId(node)),
+                                Math.round(zoom * (x - NODE_WIDTH / 2)),
+                                Math.round(zoom * (y + NODE_HEIGHT / 4))
+                        );
+                    }
+                }
+            }
         }
+    }
 
-        g2d.setColor(BLACK_COLOR);
-        g2d.drawRect(
-                Math.round(zoom * (node.getViewProps().getX() - NODE_WIDTH / 2)),
-                Math.round(zoom * (node.getViewProps().getY() - NODE_HEIGHT / 2)),
-                Math.round(zoom * NODE_WIDTH),
-                Math.round(zoom * NODE_HEIGHT)
-        );
+    /**
+     * Draws the subtree of the node as a rectangle covering its nodes. The more nodes fall on one pixel,
+     * the darker the rectangle is.
+     */
+    private static void drawSubtreeGlyph(Graphics2D g2d, Scene scene, int node) {
+        NodeTable nodes = scene.nodes();
+        float zoom = scene.zoom();
+        int[] subtreeBottoms = scene.subtreeBottoms();
+        int[] subtreeCounts = scene.subtreeCounts();
+        int left = Math.round(zoom * nodes.getSubTreeMinX(node));
+        int top = Math.round(zoom * (nodes.getY(node) - NODE_HEIGHT / 2));
+        int width = Math.max(1, Math.round(zoom * nodes.getSubTreeMaxX(node)) - left);
+        int height = Math.max(1, Math.round(zoom * (subtreeBottoms[node] + NODE_HEIGHT / 2)) - top);
+
+        double density = Math.min(1.0, subtreeCounts[node] / ((double) width * height));
+        g2d.setColor(new Color(BLACK_COLOR.getRed(), BLACK_COLOR.getGreen(), BLACK_COLOR.getBlue(),
+                (int) Math.round(80 + 175 * density)));
+        g2d.fillRect(left, top, width, height);
+    }
+
+    /**
+     * Computes the lowest y-coordinate and the count of the nodes drawn in each subtree in the selected round.
+     * The nodes are listed in preorder and their statistics are added to their parents in the reverse order.
+     */
+    private void computeSubtreeStatistics() {
+        NodeTable nodes = tree.getNodes();
+        subtreeBottoms = new int[nodes.size()];
+        subtreeCounts = new int[nodes.size()];
+        statisticsRound = selectedRound;
+        int root = tree.getRoot().getIndex();
+        if (!isVisibleNode(root, selectedRound)) return;
 
-        if (zoom >= TEXT_ZOOM_LIMIT) {
-            g2d.drawString(
-                    Integer.toString(node.getId()),
-                    Math.round(zoom * (node.getViewProps().getX() - NODE_WIDTH / 2)),
-                    Math.round(zoom * (node.getViewProps().getY() + NODE_HEIGHT / 4))
-            );
+        int[] preorder = new int[nodes.size()];
+        int count = 0;
+        TraversalStack stack = new TraversalStack();
+        stack.push(root, 0);
+        while (!stack.isEmpty()) {
+            int node = stack.topNode();
+            stack.pop();
+            preorder[count++] = node;
+            if (isVisibleNode(nodes.getRight(node), selectedRound))
+                stack.push(nodes.getRight(node), 0);
+            if (isVisibleNode(nodes.getLeft(node), selectedRound))
+                stack.push(nodes.getLeft(node), 0);
+        }
+        for (int i = count - 1; i >= 0; --i) {
+            int node = preorder[i];
+            subtreeBottoms[node] = Math.max(subtreeBottoms[node], nodes.getY(node));
+            ++subtreeCounts[node];
+            if (node != root) {
+                int parent = nodes.getParent(node);
+                subtreeBottoms[parent] = Math.max(subtreeBottoms[parent], subtreeBottoms[node]);
+                subtreeCounts[parent] += subtreeCounts[node];
+            }
         }
     }
 
+    /**
+     * Scrolls the view so the node is in the middle of it.
+     *
+     * @param node node to be displayed.
+     */
+    public void scrollToNode(Node node) {
+        viewRect = new Rectangle(getVisibleRect());
+        viewRect.x = Math.round(zoom * node.getViewProps().getX()) - viewRect.width / 2;
+        viewRect.y = Math.round(zoom * node.getViewProps().getY()) - viewRect.height / 2;
+        repaint();
+    }
+
     public boolean isSelectedVisible() {
         if (selectedNode == null) {
             return false;
         }
-        return isVisibleNode(selectedNode, selectedRound);
+        return isDrawnNode(selectedNode.getIndex());
     }
 
     private static Font makeFont(float zoom) {
         return font = new Font(CODE_FONT, Font.PLAIN, Math.round((0.75f * NODE_HEIGHT) * zoom));
     }
 
+    /**
+     * Selects the round in which the tree is drawn. Only the nodes which appear or disappear in the rounds between
+     * the previous and the new round are updated in the set of drawn nodes, in the cached tiles and in the subtree
+     * statistics.
+     *
+     * @param selectedRound index of the round.
+     */
     public void setSelectedRound(int selectedRound) {
+        if (selectedRound != this.selectedRound && roundEvents != null) {
+            BitSet changedNodes = new BitSet();
+            roundEvents.forEachEvent(this.selectedRound, selectedRound, node -> {
+                drawnNodes.flip(node);
+                changedNodes.set(node);
+            });
+            reuseTiles(this.selectedRound, selectedRound, changedNodes);
+            updateSubtreeStatistics(selectedRound, changedNodes);
+        }
         this.selectedRound = selectedRound;
     }
 
+    /**
+     * Moves the subtree statistics of the previously selected round to the new round. The statistics of the nodes
+     * which appear in the new round are computed again, and so are the statistics of the ancestors of the nodes
+     * which appear or disappear, up to the first ancestor whose statistics do not change. If that takes more steps
+     * than there are nodes, the statistics are computed from scratch when the tree is painted.
+     * The statistics change in place, so tiles being drawn from them on background threads are dropped.
+     *
+     * @param round        the new round.
+     * @param changedNodes nodes drawn in only one of the rounds.
+     */
+    private void updateSubtreeStatistics(int round, BitSet changedNodes) {
+        if (statisticsRound != selectedRound) return;
+        tileCache.cancelPending();
+        NodeTable nodes = tree.getNodes();
+        int budget = nodes.size();
+        for (int node = changedNodes.nextSetBit(0); node >= 0; node = changedNodes.nextSetBit(node + 1)) {
+            if (drawnNodes.get(node)) {
+                computeStatistics(nodes, node);
+            }
+            int parent = nodes.getParent(node);
+            while (parent != NodeTable.NONE && drawnNodes.get(parent) && computeStatistics(nodes, parent)) {
+                parent = nodes.getParent(parent);
+                if (--budget < 0) {
+                    statisticsRound = -1;
+                    return;
+                }
+            }
+        }
+        statisticsRound = round;
+    }
+
+    /**
+     * Computes the statistics of the subtree of a drawn node from the statistics of its drawn children.
+     *
+     * @return true if the statistics of the node changed.
+     */
+    private boolean computeStatistics(NodeTable nodes, int node) {
+        int bottom = nodes.getY(node);
+        int count = 1;
+        int left = nodes.getLeft(node);
+        if (isDrawnNode(left)) {
+            bottom = Math.max(bottom, subtreeBottoms[left]);
+            count += subtreeCounts[left];
+        }
+        int right = nodes.getRight(node);
+        if (isDrawnNode(right)) {
+            bottom = Math.max(bottom, subtreeBottoms[right]);
+            count += subtreeCounts[right];
+        }
+        if (bottom == subtreeBottoms[node] && count == subtreeCounts[node]) {
+            return false;
+        }
+        subtreeBottoms[node] = bottom;
+        subtreeCounts[node] = count;
+        return true;
+    }
+
+    /**
+     * Lets the cached tiles of a round serve another round, except the tiles crossed by the nodes and edges
+     * drawn in only one of the rounds. When zoomed out, the glyphs of subtrees depend on all their nodes,
+     * so the tiles are drawn again.
+     *
+     * @param changedNodes nodes drawn in only one of the rounds.
+     */
+    private void reuseTiles(int fromRound, int toRound, BitSet changedNodes) {
+        if (zoom < DETAIL_ZOOM_LIMIT) return;
+        List<TileCache.Tile> tiles = tileCache.getTiles(fromRound, zoom);
+        if (tiles.isEmpty()) return;
+        // only the cached tiles are checked, the tiles crossed by the nodes are limited to their bounds
+        Set<Long> unchanged = new HashSet<>();
+        int minTileX = Integer.MAX_VALUE;
+        int minTileY = Integer.MAX_VALUE;
+        int maxTileX = Integer.MIN_VALUE;
+        int maxTileY = Integer.MIN_VALUE;
+        for (TileCache.Tile tile : tiles) {
+            unchanged.add(tileKey(tile.x(), tile.y()));
+            minTileX = Math.min(minTileX, tile.x());
+            minTileY = Math.min(minTileY, tile.y());
+            maxTileX = Math.max(maxTileX, tile.x());
+            maxTileY = Math.max(maxTileY, tile.y());
+        }
+
+        NodeTable nodes = tree.getNodes();
+        FontMetrics metrics = getFontMetrics(font);
+        int size = TileCache.TILE_SIZE;
+        int margin = (int) Math.ceil(EDGE_THICKNESS) + 1;
+        for (int node = changedNodes.nextSetBit(0); node >= 0 && !unchanged.isEmpty();
+             node = changedNodes.nextSetBit(node + 1)) {
+            // rectangle and label of the node and the edge from its parent
+            int minX = Math.round(zoom * (nodes.getX(node) - NODE_WIDTH / 2));
+            int minY = Math.round(zoom * (nodes.getY(node) - NODE_HEIGHT / 2));
+            int maxX = minX + Math.max(Math.round(zoom * NODE_WIDTH),
+                    metrics.stringWidth(Integer.toString(nodes.getId(node))));
+            int maxY = minY + Math.round(zoom * NODE_HEIGHT);
+            int parent = nodes.getParent(node);
+            if (parent != NodeTable.NONE) {
+                int parentX = Math.round(zoom * nodes.getX(parent));
+                minX = Math.min(minX, parentX);
+                maxX = Math.max(maxX, parentX);
+                minY = Math.min(minY, Math.round(zoom * (nodes.getY(parent) + NODE_HEIGHT / 2)));
+            }
+            int lastY = Math.min(maxTileY, Math.floorDiv(maxY + margin, size));
+            int lastX = Math.min(maxTileX, Math.floorDiv(maxX + margin, size));
+            for (int tileY = Math.max(minTileY, Math.floorDiv(minY - margin, size)); tileY <= lastY; ++tileY) {
+                for (int tileX = Math.max(minTileX, Math.floorDiv(minX - margin, size)); tileX <= lastX; ++tileX) {
+                    unchanged.remove(tileKey(tileX, tileY));
+                }
+            }
+        }
+        List<TileCache.Tile> reused = new ArrayList<>();
+        for (TileCache.Tile tile : tiles) {
+            if (unchanged.contains(tileKey(tile.x(), tile.y()))) {
+                reused.add(tile);
+            }
+        }
+        tileCache.reuse(reused, toRound);
+    }
+
+    private boolean isDrawn(int node, int round) {
+        return drawnStarts[node] <= round && round < drawnEnds[node];
+    }
+
+    private static long tileKey(int tileX, int tileY) {
+        return ((long) tileX << 32) | (tileY & 0xffffffffL);
+    }
+
     public void setSelectedNode(Node selectedNode) {
         this.selectedNode = selectedNode;
     }
+
+    public Node getSelectedNode() {
+        return selectedNode;
+    }
+
+    /**
+     * Replaces the displayed tree. The new tree is displayed after {@link #load()} is called.
+     *
+     * @param tree process tree to be displayed.
+     */
+    public void setTree(Tree tree) {
+        this.tree = tree;
+        selectedNode = null;
+        selectedRound = 0;
+        areas.clear();
+        layoutIndex = null;
+        statisticsRound = -1;
+        drawnStarts = null;
+        drawnEnds = null;
+        roundEvents = null;
+        drawnNodes = null;
+        tileCache.invalidate();
+    }
+
+    /**
+     * Heap of nodes with the greatest value on the top.
+     */
+    private static final class MaxHeap {
+        private static final int INITIAL_CAPACITY = 64;
+        // value in the upper half and node index in the lower half
+        private long[] entries = new long[INITIAL_CAPACITY];
+        private int size = 0;
+
+        private void push(int value, int node) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, 2 * size);
+            }
+            long entry = ((long) value << 32) | (node & 0xffffffffL);
+            int i = size++;
+            while (i > 0 && entries[(i - 1) / 2] < entry) {
+                entries[i] = entries[(i - 1) / 2];
+                i = (i - 1) / 2;
+            }
+            entries[i] = entry;
+        }
+
+        private void pop() {
+            long last = entries[--size];
+            int i = 0;
+            while (2 * i + 1 < size) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && entries[child + 1] > entries[child]) {
+                    ++child;
+                }
+                if (entries[child] <= last) {
+                    break;
+                }
+                entries[i] = entries[child];
+                i = child;
+            }
+            entries[i] = last;
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private int topValue() {
+            return (int) (entries[0] >> 32);
+        }
+
+        private int topNode() {
+            return (int) entries[0];
+        }
+    }
+
+    /**
+     * Stack of the nodes of a traversal of the tree. Each entry keeps a value and the stage of the node's processing.
+     */
+    private static final class TraversalStack {
+        private static final int INITIAL_CAPACITY = 64;
+        private int[] nodes = new int[INITIAL_CAPACITY];
+        private int[] values = new int[INITIAL_CAPACITY];
+        private int[] stages = new int[INITIAL_CAPACITY];
+        private int size = 0;
+
+        private void push(int node, int value) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2 * size);
+                values = Arrays.copyOf(values, 2 * size);
+                stages = Arrays.copyOf(stages, 2 * size);
+            }
+            nodes[size] = node;
+            values[size] = value;
+            stages[size] = 0;
+            ++size;
+        }
+
+        private void pop() {
+            --size;
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private int topNode() {
+            return nodes[size - 1];
+        }
+
+        private int topValue() {
+            return values[size - 1];
+        }
+
+        private void setTopValue(int value) {
+            values[size - 1] = value;
+        }
+
+        private int topStage() {
+            return stages[size - 1];
+        }
+
+        private void setTopStage(int stage) {
+            stages[size - 1] = stage;
+        }
+    }
 }
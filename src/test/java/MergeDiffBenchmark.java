@@ -0,0 +1,110 @@
+import jetklee.ExecutionState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static jetklee.CompleteMemoryRetriever.mergeDiff;
+
+/**
+ * Measures mergeDiff on zero-filled objects of 64 KB and larger, a quarter of whose bytes is changed. Compares
+ * the bulk merge with merging the bytes one at a time and with the former merge of index lists, which is
+ * quadratic and therefore measured only on the smallest object.
+ * Not run by the tests, run the main method of the class instead.
+ */
+public class MergeDiffBenchmark {
+    private static final int[] SIZES = {64 * 1024, 256 * 1024, 1024 * 1024, 4 * 1024 * 1024};
+    private static final int LIST_MERGE_MAX_SIZE = 64 * 1024;
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int ROUNDS = 7;
+    // keeps the results of the merges alive
+    private static volatile int sink;
+
+    public static void main(String[] args) {
+        System.out.printf("%10s %14s %14s %14s%n", "size", "bulk [ms]", "per byte [ms]", "lists [ms]");
+        for (int size : SIZES) {
+            ExecutionState.Diff a = new ExecutionState.Diff(zeroFilled(size), new ExecutionState.ByteMap());
+            ExecutionState.Diff b = quarterChanged(size);
+            Map<String, List<Integer>> listsA = toLists(a.additions());
+            Map<String, List<Integer>> listsDeletions = toLists(b.deletions());
+            Map<String, List<Integer>> listsAdditions = toLists(b.additions());
+
+            double bulk = measure(() -> mergeDiff(a, b).additions().size());
+            double perByte = measure(() -> mergePerByte(a, b).size());
+            String lists = size > LIST_MERGE_MAX_SIZE ? "-"
+                    : String.format("%.2f", measure(() -> mergeLists(listsA, listsDeletions, listsAdditions).size()));
+            System.out.printf("%10d %14.2f %14.2f %14s%n", size, bulk, perByte, lists);
+        }
+    }
+
+    private interface Merge {
+        int run();
+    }
+
+    /**
+     * @return median time of one merge in milliseconds.
+     */
+    private static double measure(Merge merge) {
+        for (int i = 0; i < WARMUP_ROUNDS; ++i) {
+            sink = merge.run();
+        }
+        long[] times = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; ++i) {
+            long start = System.nanoTime();
+            sink = merge.run();
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        return times[ROUNDS / 2] / 1e6;
+    }
+
+    private static ExecutionState.ByteMap zeroFilled(int size) {
+        ExecutionState.ByteMap byteMap = new ExecutionState.ByteMap();
+        for (int i = 0; i < size; ++i) {
+            byteMap.put(i, "0");
+        }
+        return byteMap;
+    }
+
+    /**
+     * @return diff which changes every fourth byte from zero to a non-zero value.
+     */
+    private static ExecutionState.Diff quarterChanged(int size) {
+        ExecutionState.ByteMap additions = new ExecutionState.ByteMap();
+        ExecutionState.ByteMap deletions = new ExecutionState.ByteMap();
+        for (int i = 0; i < size; i += 4) {
+            deletions.put(i, "0");
+            additions.put(i, Integer.toString(1 + i % 255));
+        }
+        return new ExecutionState.Diff(additions, deletions);
+    }
+
+    private static ExecutionState.ByteMap mergePerByte(ExecutionState.Diff a, ExecutionState.Diff b) {
+        ExecutionState.ByteMap merged = new ExecutionState.ByteMap(a.additions());
+        b.deletions().forEach(merged::remove);
+        b.additions().forEach(merged::put);
+        return merged;
+    }
+
+    private static Map<String, List<Integer>> toLists(ExecutionState.ByteMap byteMap) {
+        Map<String, List<Integer>> lists = new HashMap<>();
+        byteMap.forEach((index, value) -> lists.computeIfAbsent(value, key -> new ArrayList<>()).add(index));
+        return lists;
+    }
+
+    private static Map<String, List<Integer>> mergeLists(Map<String, List<Integer>> a,
+                                                         Map<String, List<Integer>> deletions,
+                                                         Map<String, List<Integer>> additions) {
+        Map<String, List<Integer>> merged = new HashMap<>();
+        a.forEach((key, indices) -> merged.put(key, new ArrayList<>(indices)));
+        deletions.forEach((key, indices) -> merged.get(key).removeAll(indices));
+        merged.entrySet().removeIf(entry -> entry.getValue().isEmpty());
+        additions.forEach((key, indices) -> merged.merge(key, new ArrayList<>(indices), (v1, v2) -> {
+            v1.addAll(v2);
+            return v1;
+        }));
+        return merged;
+    }
+}
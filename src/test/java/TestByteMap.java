@@ -0,0 +1,201 @@
+import jetklee.ExecutionState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static jetklee.CompleteMemoryRetriever.mergeDiff;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TestByteMap {
+
+    private static final String[] VALUES = {"0", "1", "255", "256", "00", "-1", "",
+            "(ReadLSB w32 0 arr)", "(Read w8 3 sym)"};
+
+    private static TreeMap<Integer, String> entries(ExecutionState.ByteMap byteMap) {
+        TreeMap<Integer, String> result = new TreeMap<>();
+        List<Integer> indices = new ArrayList<>();
+        byteMap.forEach((index, value) -> {
+            indices.add(index);
+            result.put(index, value);
+        });
+        assertEquals(new ArrayList<>(result.keySet()), indices, "The bytes are not in ascending order of indices");
+        assertEquals(result.size(), byteMap.size());
+        return result;
+    }
+
+    private static ExecutionState.ByteMap byteMap(Map<Integer, String> bytes) {
+        ExecutionState.ByteMap byteMap = new ExecutionState.ByteMap();
+        bytes.forEach(byteMap::put);
+        return byteMap;
+    }
+
+    @Test
+    public void testChunkBoundary() {
+        ExecutionState.ByteMap byteMap = new ExecutionState.ByteMap();
+        byteMap.put(63, "1");
+        byteMap.put(64, "2");
+        assertEquals(2, byteMap.size());
+        assertEquals("1", byteMap.get(63));
+        assertEquals("2", byteMap.get(64));
+        assertNull(byteMap.get(62));
+        assertNull(byteMap.get(65));
+        assertEquals(Map.of(63, "1", 64, "2"), entries(byteMap));
+
+        byteMap.remove(63, "1");
+        assertNull(byteMap.get(63));
+        assertEquals("2", byteMap.get(64));
+        byteMap.remove(64, "2");
+        assertEquals(0, byteMap.size());
+        assertEquals(new ExecutionState.ByteMap(), byteMap);
+    }
+
+    @Test
+    public void testConcreteAndSymbolicValues() {
+        ExecutionState.ByteMap byteMap = new ExecutionState.ByteMap();
+        for (int i = 0; i < VALUES.length; ++i) {
+            byteMap.put(i, VALUES[i]);
+        }
+        for (int i = 0; i < VALUES.length; ++i) {
+            assertEquals(VALUES[i], byteMap.get(i));
+        }
+
+        // a concrete byte replaced by a symbolic value and back
+        byteMap.put(0, "(Read w8 0 sym)");
+        assertEquals("(Read w8 0 sym)", byteMap.get(0));
+        byteMap.put(0, "7");
+        assertEquals("7", byteMap.get(0));
+        byteMap.put(7, "8");
+        assertEquals("8", byteMap.get(7));
+        assertEquals(VALUES.length, byteMap.size());
+
+        // the value of a byte has to match to remove it
+        byteMap.remove(7, "(ReadLSB w32 0 arr)");
+        assertEquals("8", byteMap.get(7));
+        byteMap.remove(3, "3");
+        assertEquals("256", byteMap.get(3));
+        byteMap.remove(3, "256");
+        assertNull(byteMap.get(3));
+        assertEquals(VALUES.length - 1, byteMap.size());
+    }
+
+    @Test
+    public void testCopiesAreIsolated() {
+        ExecutionState.ByteMap original = new ExecutionState.ByteMap();
+        for (int i = 0; i < 200; ++i) {
+            original.put(i, i % 3 == 0 ? "(Read w8 " + i + " sym)" : Integer.toString(i % 256));
+        }
+        TreeMap<Integer, String> originalEntries = entries(original);
+        ExecutionState.ByteMap copy = new ExecutionState.ByteMap(original);
+
+        copy.put(10, "11");
+        copy.put(64, "(Read w8 0 other)");
+        copy.remove(1, "1");
+        copy.put(500, "5");
+        original.put(10, "99");
+        original.put(130, "(Read w8 1 other)");
+        original.remove(2, "2");
+
+        TreeMap<Integer, String> expectedCopy = new TreeMap<>(originalEntries);
+        expectedCopy.put(10, "11");
+        expectedCopy.put(64, "(Read w8 0 other)");
+        expectedCopy.remove(1);
+        expectedCopy.put(500, "5");
+        TreeMap<Integer, String> expectedOriginal = new TreeMap<>(originalEntries);
+        expectedOriginal.put(10, "99");
+        expectedOriginal.put(130, "(Read w8 1 other)");
+        expectedOriginal.remove(2);
+
+        assertEquals(expectedCopy, entries(copy));
+        assertEquals(expectedOriginal, entries(original));
+
+        // a copy of a copy, modified after the first copy shared its chunks again
+        ExecutionState.ByteMap second = new ExecutionState.ByteMap(copy);
+        second.put(10, "12");
+        copy.put(11, "13");
+        assertEquals("12", second.get(10));
+        assertEquals("11", copy.get(10));
+        assertEquals("13", copy.get(11));
+        assertEquals(expectedCopy.get(11), second.get(11));
+        assertEquals(expectedOriginal, entries(original));
+    }
+
+    /**
+     * Merge of the value-keyed index lists which the byte maps replaced.
+     */
+    private static Map<String, List<Integer>> mergeLists(Map<String, List<Integer>> a,
+                                                         Map<String, List<Integer>> deletions,
+                                                         Map<String, List<Integer>> additions) {
+        Map<String, List<Integer>> merged = new HashMap<>();
+        a.forEach((key, indices) -> merged.put(key, new ArrayList<>(indices)));
+        deletions.forEach((key, indices) -> merged.get(key).removeAll(indices));
+        merged.entrySet().removeIf(entry -> entry.getValue().isEmpty());
+        additions.forEach((key, indices) -> merged.merge(key, new ArrayList<>(indices), (v1, v2) -> {
+            v1.addAll(v2);
+            return v1;
+        }));
+        return merged;
+    }
+
+    private static Map<String, List<Integer>> toLists(Map<Integer, String> bytes) {
+        Map<String, List<Integer>> lists = new HashMap<>();
+        bytes.forEach((index, value) -> lists.computeIfAbsent(value, key -> new ArrayList<>()).add(index));
+        return lists;
+    }
+
+    private static TreeMap<Integer, String> fromLists(Map<String, List<Integer>> lists) {
+        TreeMap<Integer, String> bytes = new TreeMap<>();
+        lists.forEach((value, indices) -> indices.forEach(index -> assertNull(bytes.put(index, value))));
+        return bytes;
+    }
+
+    @Test
+    public void testMergeDiffMatchesListMerge() {
+        Random random = new Random(7);
+        for (int round = 0; round < 300; ++round) {
+            int size = 1 + random.nextInt(400);
+            TreeMap<Integer, String> a = new TreeMap<>();
+            for (int i = 0; i < size; ++i) {
+                if (random.nextInt(4) != 0) {
+                    a.put(i, VALUES[random.nextInt(VALUES.length)]);
+                }
+            }
+            // as recorded, a changed byte is deleted with its previous value and added with the new one
+            TreeMap<Integer, String> deletions = new TreeMap<>();
+            TreeMap<Integer, String> additions = new TreeMap<>();
+            for (int i = 0; i < size + 64; ++i) {
+                String previous = a.get(i);
+                if (previous != null && random.nextInt(3) == 0) {
+                    deletions.put(i, previous);
+                    if (random.nextBoolean()) {
+                        additions.put(i, VALUES[random.nextInt(VALUES.length)]);
+                    }
+                } else if (previous == null && random.nextInt(5) == 0) {
+                    additions.put(i, VALUES[random.nextInt(VALUES.length)]);
+                }
+            }
+
+            ExecutionState.Diff diffA = new ExecutionState.Diff(byteMap(a), new ExecutionState.ByteMap());
+            ExecutionState.Diff diffB = new ExecutionState.Diff(byteMap(additions), byteMap(deletions));
+            ExecutionState.Diff merged = mergeDiff(diffA, diffB);
+
+            TreeMap<Integer, String> expected = fromLists(mergeLists(toLists(a), toLists(deletions),
+                    toLists(additions)));
+            assertEquals(expected, entries(merged.additions()), "The merged diff is incorrect in round " + round);
+            assertEquals(0, merged.deletions().size());
+            // the merged map shares chunks with the inputs, which must stay unmodified
+            assertEquals(a, entries(diffA.additions()));
+            assertEquals(additions, entries(diffB.additions()));
+            assertEquals(deletions, entries(diffB.deletions()));
+            merged.additions().put(0, "(Read w8 9 sym)");
+            merged.additions().put(size, "9");
+            assertEquals(a, entries(diffA.additions()));
+            assertEquals(additions, entries(diffB.additions()));
+        }
+    }
+}
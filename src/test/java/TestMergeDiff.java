@@ -3,6 +3,7 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import static jetklee.CompleteMemoryRetriever.mergeDiff;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -115,4 +116,49 @@ public class TestMergeDiff {
         // Assert: Check if the result matches the expected output
         assertEquals(expected, result, "The merged diff is incorrect");
     }
+
+    private static ExecutionState.ByteMap mergePerByte(ExecutionState.Diff a, ExecutionState.Diff b) {
+        ExecutionState.ByteMap merged = new ExecutionState.ByteMap(a.additions());
+        b.deletions().forEach(merged::remove);
+        b.additions().forEach(merged::put);
+        return merged;
+    }
+
+    @Test
+    public void testBulkMergeMatchesPerByteMerge() {
+        // Arrange: a zero-filled object of 64 KB with symbolic bytes, the diff changes every fourth byte, replaces
+        // whole chunks and adds bytes after the end of the object
+        int size = 64 * 1024;
+        Random random = new Random(15);
+        ExecutionState.ByteMap object = new ExecutionState.ByteMap();
+        for (int i = 0; i < size; ++i) {
+            object.put(i, i % 97 == 0 ? "(Read w8 " + i + " sym)" : "0");
+        }
+        ExecutionState.ByteMap additions = new ExecutionState.ByteMap();
+        ExecutionState.ByteMap deletions = new ExecutionState.ByteMap();
+        for (int i = 0; i < size; i += 4) {
+            deletions.put(i, object.get(i));
+            additions.put(i, random.nextInt(8) == 0 ? "(Read w8 " + i + " other)" : Integer.toString(1 + i % 255));
+        }
+        for (int i = 1024; i < 1024 + 3 * 64; ++i) {
+            deletions.put(i, object.get(i));
+            additions.put(i, Integer.toString(i % 256));
+        }
+        for (int i = size; i < size + 100; ++i) {
+            additions.put(i, "1");
+        }
+        // a deletion with a value different from the object's one does not remove the byte
+        deletions.put(2, "5");
+        ExecutionState.Diff a = new ExecutionState.Diff(object, new ExecutionState.ByteMap());
+        ExecutionState.Diff b = new ExecutionState.Diff(additions, deletions);
+
+        // Act
+        ExecutionState.ByteMap perByte = mergePerByte(a, b);
+        ExecutionState.Diff bulk = mergeDiff(a, b);
+
+        // Assert
+        assertEquals(perByte, bulk.additions(), "The bulk merge differs from merging the bytes one at a time");
+        assertEquals(perByte.toString(), bulk.additions().toString());
+        assertEquals(size + 100, bulk.additions().size());
+    }
 }
@@ -0,0 +1,222 @@
+import jetklee.ExecutionState;
+import jetklee.Node;
+import jetklee.NodeTable;
+import jetklee.ObjectLifetimeIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class TestObjectLifetimeIndex {
+    private static final int OBJECT_COUNT = 6;
+    // no node writes this object
+    private static final int UNKNOWN_OBJECT = 99;
+
+    private static ExecutionState.ObjectState objectState(int objID, ExecutionState.OperationType type, String name) {
+        return new ExecutionState.ObjectState(objID, type, 0, name, "1", false, false, false, false, 0, false,
+                null, null, null);
+    }
+
+    /**
+     * @return random diff, some objects are both added and changed by the node.
+     */
+    private static ExecutionState.Memory randomMemory(Random random, int id) {
+        ExecutionState.Memory memory = new ExecutionState.Memory(new ArrayList<>(), new ArrayList<>(),
+                new ArrayList<>());
+        for (int objID = 0; objID < OBJECT_COUNT; ++objID) {
+            switch (random.nextInt(8)) {
+                case 0 -> memory.additions().add(objectState(objID, ExecutionState.OperationType.ADDITION,
+                        "added by " + id));
+                case 1 -> memory.changes().add(objectState(objID, ExecutionState.OperationType.CHANGE,
+                        "changed by " + id));
+                case 2 -> {
+                    memory.additions().add(objectState(objID, ExecutionState.OperationType.ADDITION,
+                            "added by " + id));
+                    memory.changes().add(objectState(objID, ExecutionState.OperationType.CHANGE,
+                            "changed by " + id));
+                }
+                case 3 -> memory.deletions().add(new ExecutionState.Deletion(objID,
+                        ExecutionState.OperationType.DELETION));
+                default -> {
+                }
+            }
+        }
+        return memory;
+    }
+
+    private static boolean writes(Node node, int objID) {
+        ExecutionState.Memory memory = node.getExecutionState().getMemory();
+        return memory.additions().stream().anyMatch(state -> state.objID() == objID)
+                || memory.changes().stream().anyMatch(state -> state.objID() == objID);
+    }
+
+    private static ExecutionState.ObjectState walkLastState(Node node, int objID) {
+        for (Node current = node; current != null; current = current.getParent()) {
+            ExecutionState.Memory memory = current.getExecutionState().getMemory();
+            for (ExecutionState.ObjectState addition : memory.additions()) {
+                if (addition.objID() == objID) {
+                    return addition;
+                }
+            }
+            for (ExecutionState.ObjectState change : memory.changes()) {
+                if (change.objID() == objID) {
+                    return change;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static List<Node> walkWritingAncestors(Node node, int objID) {
+        List<Node> result = new ArrayList<>();
+        for (Node current = node; current != null; current = current.getParent()) {
+            if (writes(current, objID)) {
+                result.add(current);
+            }
+        }
+        return result;
+    }
+
+    private static void assertMatchesWalk(NodeTable table, ObjectLifetimeIndex index, String context) {
+        for (Node node : table) {
+            for (int objID = 0; objID < OBJECT_COUNT; ++objID) {
+                assertSame(walkLastState(node, objID), index.findLastState(node, objID),
+                        context + ": last state of object " + objID + " at node " + node.getId());
+                assertEquals(walkWritingAncestors(node, objID), index.getWritingAncestors(node, objID),
+                        context + ": writing ancestors of object " + objID + " at node " + node.getId());
+            }
+            assertNull(index.findLastState(node, UNKNOWN_OBJECT));
+            assertEquals(List.of(), index.getWritingAncestors(node, UNKNOWN_OBJECT));
+        }
+    }
+
+    private static boolean isInSubtree(Node node, Node root) {
+        for (Node current = node; current != null; current = current.getParent()) {
+            if (current.equals(root)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void link(Node parent, Node child) {
+        child.setParent(parent);
+        if (parent.getLeft() == null) {
+            parent.setLeft(child);
+        } else {
+            parent.setRight(child);
+        }
+    }
+
+    /**
+     * Adds nodes to the tree, each one is a new root or a child of a random node with a free slot.
+     */
+    private static void grow(Random random, NodeTable table, ObjectLifetimeIndex index, int count) {
+        for (int i = 0; i < count; ++i) {
+            int id = table.size();
+            Node node = table.node(table.add(id));
+            ExecutionState es = new ExecutionState((ExecutionState.InsertContext) null, id);
+            es.setNodeInfo(new ExecutionState.NodeInfo(randomMemory(random, id), null, null));
+            node.setExecutionState(es);
+            if (id > 0 && random.nextInt(8) != 0) {
+                List<Node> free = new ArrayList<>();
+                for (Node candidate : table) {
+                    if (!candidate.equals(node) && candidate.getRight() == null) {
+                        free.add(candidate);
+                    }
+                }
+                link(free.get(random.nextInt(free.size())), node);
+            }
+            index.add(table.indexOf(id), es.getMemory());
+        }
+        index.structureChanged();
+    }
+
+    /**
+     * Attaches the trees of all roots but the first one below random nodes, the number of nodes does not change.
+     *
+     * @return true if a tree was attached.
+     */
+    private static boolean joinRoots(Random random, NodeTable table) {
+        List<Node> roots = new ArrayList<>();
+        for (Node node : table) {
+            if (node.getParent() == null) {
+                roots.add(node);
+            }
+        }
+        boolean joined = false;
+        for (Node root : roots.subList(1, roots.size())) {
+            List<Node> free = new ArrayList<>();
+            for (Node candidate : table) {
+                if (candidate.getRight() == null && !isInSubtree(candidate, root)) {
+                    free.add(candidate);
+                }
+            }
+            link(free.get(random.nextInt(free.size())), root);
+            joined = true;
+        }
+        return joined;
+    }
+
+    @Test
+    public void testMatchesAncestorWalk() {
+        for (int seed = 0; seed < 40; ++seed) {
+            Random random = new Random(seed);
+            NodeTable table = new NodeTable();
+            ObjectLifetimeIndex index = new ObjectLifetimeIndex(table);
+
+            grow(random, table, index, 1 + random.nextInt(30));
+            assertMatchesWalk(table, index, "seed " + seed + ", several roots");
+            grow(random, table, index, 1 + random.nextInt(30));
+            assertMatchesWalk(table, index, "seed " + seed + ", grown");
+
+            // only the edges change, the preorder numbers have to be computed again
+            if (joinRoots(random, table)) {
+                index.structureChanged();
+                assertMatchesWalk(table, index, "seed " + seed + ", joined roots");
+            }
+        }
+    }
+
+    @Test
+    public void testNodeAddingAndChangingObject() {
+        NodeTable table = new NodeTable();
+        ObjectLifetimeIndex index = new ObjectLifetimeIndex(table);
+        ExecutionState.ObjectState rootAddition = objectState(1, ExecutionState.OperationType.ADDITION, "root");
+        ExecutionState.ObjectState addition = objectState(1, ExecutionState.OperationType.ADDITION, "added");
+        ExecutionState.ObjectState change = objectState(1, ExecutionState.OperationType.CHANGE, "changed");
+        ExecutionState.Memory[] memories = {
+                new ExecutionState.Memory(new ArrayList<>(List.of(rootAddition)), new ArrayList<>(),
+                        new ArrayList<>()),
+                new ExecutionState.Memory(new ArrayList<>(List.of(addition)), new ArrayList<>(List.of(change)),
+                        new ArrayList<>()),
+                new ExecutionState.Memory(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(List.of(
+                        new ExecutionState.Deletion(1, ExecutionState.OperationType.DELETION))))};
+        for (int id = 0; id < memories.length; ++id) {
+            ExecutionState es = new ExecutionState((ExecutionState.InsertContext) null, id);
+            es.setNodeInfo(new ExecutionState.NodeInfo(memories[id], null, null));
+            table.node(table.add(id)).setExecutionState(es);
+            if (id > 0) {
+                link(table.get(id - 1), table.get(id));
+            }
+            index.add(table.indexOf(id), memories[id]);
+        }
+
+        Node leaf = table.get(2);
+        assertSame(addition, index.findLastState(leaf, 1));
+        assertEquals(List.of(table.get(1), table.get(0)), index.getWritingAncestors(leaf, 1));
+        assertEquals(List.of(table.get(1)), index.getNodes(1, ExecutionState.OperationType.CHANGE));
+        assertEquals(List.of(leaf), index.getNodes(1, ExecutionState.OperationType.DELETION));
+
+        // a node of another tree is not indexed
+        NodeTable other = new NodeTable();
+        Node foreign = other.node(other.add(0));
+        assertNull(index.findLastState(foreign, 1));
+        assertNull(index.getWritingAncestors(foreign, 1));
+    }
+}
@@ -0,0 +1,124 @@
+import jetklee.PersistentIntMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestPersistentIntMap {
+
+    // keys at the boundaries of the trie levels, 5 bits per level
+    private static final int[] LEVEL_KEYS = {0, 1, 31, 32, 33, 1023, 1024, 32767, 32768, 1 << 20, (1 << 25) + 7,
+            1 << 30, Integer.MAX_VALUE};
+
+    private static void assertSameEntries(TreeMap<Integer, String> expected, PersistentIntMap<String> map) {
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        List<Integer> keys = new ArrayList<>();
+        map.forEach((key, value) -> {
+            keys.add(key);
+            assertEquals(expected.get(key), value);
+        });
+        assertEquals(new ArrayList<>(expected.keySet()), keys, "The entries are not in ascending order of the keys");
+        assertEquals(new ArrayList<>(expected.values()), map.values());
+    }
+
+    @Test
+    public void testPutGetRemoveAcrossLevels() {
+        PersistentIntMap<String> map = PersistentIntMap.empty();
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        // from the highest key, so that the root is created at once, and from the lowest one, so that levels are
+        // added above the root
+        for (int i = LEVEL_KEYS.length - 1; i >= 0; --i) {
+            map = map.put(LEVEL_KEYS[i], "v" + LEVEL_KEYS[i]);
+            expected.put(LEVEL_KEYS[i], "v" + LEVEL_KEYS[i]);
+            assertSameEntries(expected, map);
+        }
+        PersistentIntMap<String> growing = PersistentIntMap.empty();
+        for (int key : LEVEL_KEYS) {
+            growing = growing.put(key, "v" + key);
+        }
+        assertEquals(map, growing);
+
+        assertNull(map.get(2));
+        assertNull(map.get(1 << 29));
+        for (int key : LEVEL_KEYS) {
+            map = map.remove(key);
+            expected.remove(key);
+            assertSameEntries(expected, map);
+        }
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testReplaceKeepsSize() {
+        PersistentIntMap<String> map = PersistentIntMap.<String>empty().put(40, "a").put(40, "b");
+        assertEquals(1, map.size());
+        assertEquals("b", map.get(40));
+    }
+
+    @Test
+    public void testNegativeKeys() {
+        PersistentIntMap<String> map = PersistentIntMap.<String>empty().put(5, "a");
+        assertThrows(IllegalArgumentException.class, () -> map.put(-1, "b"));
+        assertThrows(IllegalArgumentException.class, () -> map.put(Integer.MIN_VALUE, "b"));
+        assertNull(map.get(-1));
+        assertNull(map.get(Integer.MIN_VALUE));
+        assertSame(map, map.remove(-1));
+    }
+
+    @Test
+    public void testUpdatesDoNotModifyOriginal() {
+        PersistentIntMap<String> original = PersistentIntMap.empty();
+        for (int key = 0; key < 100; ++key) {
+            original = original.put(key * 37, "v" + key);
+        }
+        PersistentIntMap<String> changed = original.put(37, "changed").remove(74).put(100000, "added");
+        assertEquals(100, original.size());
+        assertEquals("v1", original.get(37));
+        assertEquals("v2", original.get(74));
+        assertNull(original.get(100000));
+        assertEquals(100, changed.size());
+        assertEquals("changed", changed.get(37));
+        assertNull(changed.get(74));
+        assertEquals("added", changed.get(100000));
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(42);
+        PersistentIntMap<String> map = PersistentIntMap.empty();
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        List<PersistentIntMap<String>> versions = new ArrayList<>();
+        List<TreeMap<Integer, String>> expectedVersions = new ArrayList<>();
+        for (int i = 0; i < 5000; ++i) {
+            int key = random.nextBoolean() ? random.nextInt(2000) : random.nextInt(Integer.MAX_VALUE);
+            if (random.nextInt(3) == 0 && !expected.isEmpty()) {
+                key = expected.ceilingKey(key) != null ? expected.ceilingKey(key) : expected.firstKey();
+                map = map.remove(key);
+                expected.remove(key);
+            } else {
+                map = map.put(key, "v" + i);
+                expected.put(key, "v" + i);
+            }
+            if (i % 500 == 0) {
+                versions.add(map);
+                expectedVersions.add(new TreeMap<>(expected));
+            }
+        }
+        assertSameEntries(expected, map);
+        for (int i = 0; i < versions.size(); ++i) {
+            assertSameEntries(expectedVersions.get(i), versions.get(i));
+        }
+    }
+}
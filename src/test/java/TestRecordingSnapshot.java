@@ -0,0 +1,101 @@
+import jetklee.Tree;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestRecordingSnapshot {
+
+    private static final String ROOT_ROUND = "[{\"action\": \"InsertNode\", \"nodeID\": 1, \"stateID\": 1, "
+            + "\"uniqueState\": 1, \"firstLocation\": [\"a.c\", 1, 1, 3], \"depth\": 0, "
+            + "\"stack\": [[\"a.c\", 1, 1, 2]]}]";
+
+    private static final String FORK_ROUND = "[{\"action\": \"InsertNode\", \"nodeID\": 2, \"stateID\": 2, "
+            + "\"uniqueState\": 1, \"firstLocation\": [\"a.c\", 1, 1, 2], \"depth\": 1, "
+            + "\"stack\": [[\"a.c\", 1, 1, 1]]}, {\"action\": \"InsertEdge\", \"parentID\": 1, \"nodeID\": 2}, "
+            + "{\"action\": \"InsertNode\", \"nodeID\": 3, \"stateID\": 3, \"uniqueState\": 1, "
+            + "\"firstLocation\": [\"a.c\", 1, 1, 3], \"depth\": 1, \"stack\": [[\"a.c\", 3, 1, 1]]}, "
+            + "{\"action\": \"InsertEdge\", \"parentID\": 1, \"nodeID\": 3}]";
+
+    private static String memory(int nodeID, String name) {
+        return "{\"action\": \"InsertInfo\", \"nodeID\": " + nodeID + ", \"parentIter\": 0, \"coveredNew\": 0, "
+                + "\"forkDisabled\": 0, \"instsSinceCovNew\": 1, \"steppedInstructions\": 5, "
+                + "\"lastLocation\": [\"a.c\", 1, 1, 3], \"constraints\": [], \"objects\": {\"added\": [{"
+                + "\"objID\": " + nodeID + ", \"segment\": 1, \"name\": \"" + name + "\", \"size\": \"1\", "
+                + "\"isLocal\": 1, \"isFixed\": 0, \"isUserSpec\": 0, \"isLazy\": 0, \"copyOnWriteOwner\": 0, "
+                + "\"readOnly\": 0, \"allocSite\": {\"scope\": \"main\", \"name\": \"v\", \"code\": \"alloca\"}, "
+                + "\"segmentPlane\": {}, \"offsetPlane\": {\"rootObject\": \"obj\", \"sizeBound\": 1, "
+                + "\"initialized\": 1, \"symbolic\": 0, \"initialValue\": 0, "
+                + "\"concreteStore\": {\"add\": [{\"7\": [0]}], \"del\": []}, "
+                + "\"concreteMask\": {\"add\": [{\"1\": [0]}]}, \"knownSymbolics\": {\"add\": []}, "
+                + "\"updates\": []}}], \"changed\": [], \"deleted\": []}}";
+    }
+
+    private static void record(Path dir) throws IOException {
+        Files.createDirectories(dir.resolve("Tree"));
+        Files.createDirectories(dir.resolve("States"));
+        Files.writeString(dir.resolve("Tree/0.json"), ROOT_ROUND);
+        Files.writeString(dir.resolve("Tree/1.json"), FORK_ROUND);
+        Files.writeString(dir.resolve("States/1.json"), memory(1, "first"));
+        Files.writeString(dir.resolve("States/2.json"), memory(2, "second"));
+    }
+
+    @Test
+    public void testSnapshotRoundTrip(@TempDir Path dir) throws Exception {
+        record(dir);
+        Tree loaded = new Tree();
+        loaded.load(dir.toString());
+        assertFalse(loaded.hasLayout());
+        loaded.saveSnapshot();
+        assertTrue(Files.isRegularFile(dir.resolve("ProgressExplorer.snapshot")));
+
+        Tree restored = new Tree();
+        restored.load(dir.toString());
+        assertTrue(restored.hasLayout());
+        assertEquals(loaded.getRoundCounter(), restored.getRoundCounter());
+        assertEquals(loaded.getRounds(), restored.getRounds());
+        assertEquals(loaded.getNodes().size(), restored.getNodes().size());
+        assertEquals(Set.of("1.json", "2.json"), restored.getLoadedMemoryFiles());
+        assertNotNull(restored.getNodes().get(2).getExecutionState().getMemory());
+        assertEquals("second",
+                restored.getNodes().get(2).getExecutionState().getMemory().additions().get(0).name());
+    }
+
+    @Test
+    public void testModifiedRecordingIsParsedAgain(@TempDir Path dir) throws Exception {
+        record(dir);
+        Tree loaded = new Tree();
+        loaded.load(dir.toString());
+        loaded.saveSnapshot();
+
+        Files.writeString(dir.resolve("States/3.json"), memory(3, "third"));
+        Tree parsed = new Tree();
+        parsed.load(dir.toString());
+        assertFalse(parsed.hasLayout());
+        assertEquals(Set.of("1.json", "2.json", "3.json"), parsed.getLoadedMemoryFiles());
+    }
+
+    @Test
+    public void testFilesRecordedDuringLoadAreNotStamped(@TempDir Path dir) throws Exception {
+        record(dir);
+        Tree loaded = new Tree();
+        loaded.load(dir.toString());
+        // written by a running recorder after the load read the directory
+        Files.writeString(dir.resolve("States/3.json"), memory(3, "third"));
+        loaded.saveSnapshot();
+        assertFalse(Files.exists(dir.resolve("ProgressExplorer.snapshot")));
+
+        Tree parsed = new Tree();
+        parsed.load(dir.toString());
+        assertFalse(parsed.hasLayout());
+        assertTrue(parsed.getLoadedMemoryFiles().contains("3.json"));
+    }
+}
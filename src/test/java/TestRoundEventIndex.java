@@ -0,0 +1,65 @@
+import jetklee.RoundEventIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestRoundEventIndex {
+
+    private static boolean isDrawn(int[] starts, int[] ends, int node, int round) {
+        return starts[node] <= round && round < ends[node];
+    }
+
+    private static List<Integer> events(RoundEventIndex index, int fromRound, int toRound) {
+        List<Integer> result = new ArrayList<>();
+        index.forEachEvent(fromRound, toRound, result::add);
+        Collections.sort(result);
+        return result;
+    }
+
+    @Test
+    public void testEventsAreNodesDrawnInOneRound() {
+        Random random = new Random(25);
+        for (int iteration = 0; iteration < 100; ++iteration) {
+            int roundCount = 1 + random.nextInt(20);
+            int nodeCount = random.nextInt(200);
+            int[] starts = new int[nodeCount];
+            int[] ends = new int[nodeCount];
+            for (int node = 0; node < nodeCount; ++node) {
+                starts[node] = random.nextInt(roundCount + 1);
+                // some intervals are empty, nodes never drawn have no events
+                ends[node] = random.nextInt(4) == 0 ? random.nextInt(roundCount + 1)
+                        : starts[node] + random.nextInt(roundCount + 1 - starts[node]);
+            }
+            RoundEventIndex index = new RoundEventIndex(starts, ends, roundCount);
+
+            for (int a = 0; a < roundCount; ++a) {
+                for (int b = 0; b < roundCount; ++b) {
+                    List<Integer> expected = new ArrayList<>();
+                    for (int node = 0; node < nodeCount; ++node) {
+                        if (isDrawn(starts, ends, node, a) != isDrawn(starts, ends, node, b)) {
+                            expected.add(node);
+                        }
+                    }
+                    assertEquals(expected, events(index, a, b),
+                            "iteration " + iteration + ", rounds " + a + " and " + b);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNodeDrawnBetweenRoundsIsNotFound() {
+        // node 0 is drawn only in rounds 1 and 2, node 1 from round 2 on, node 2 in all rounds
+        RoundEventIndex index = new RoundEventIndex(new int[]{1, 2, 0}, new int[]{3, 5, 5}, 5);
+        assertEquals(List.of(1), events(index, 0, 4));
+        assertEquals(List.of(0), events(index, 2, 3));
+        assertEquals(List.of(0), events(index, 1, 0));
+        assertEquals(List.of(0, 1), events(index, 1, 4));
+        assertEquals(List.of(), events(index, 3, 3));
+    }
+}
@@ -0,0 +1,144 @@
+import jetklee.TileCache;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestTileCache {
+    private static final long MEGABYTE = 1024 * 1024;
+
+    private static BufferedImage image(double scale) {
+        int pixels = (int) Math.ceil(TileCache.TILE_SIZE * scale);
+        return new BufferedImage(pixels, pixels, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    private static int countCached(TileCache cache, int round, double scale, int tileCount) {
+        int count = 0;
+        for (int x = 0; x < tileCount; ++x) {
+            if (cache.get(new TileCache.Tile(round, 1.0f, scale, x, 0)) != null) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testCapacityBoundsPixelBytes() {
+        // a tile has 256 KB without scaling and 1 MB at the scale of 2
+        TileCache cache = new TileCache(MEGABYTE);
+        for (int x = 0; x < 10; ++x) {
+            cache.put(new TileCache.Tile(0, 1.0f, 1.0, x, 0), image(1.0));
+        }
+        assertEquals(4, countCached(cache, 0, 1.0, 10));
+        assertNotNull(cache.get(new TileCache.Tile(0, 1.0f, 1.0, 9, 0)));
+        assertNull(cache.get(new TileCache.Tile(0, 1.0f, 1.0, 5, 0)));
+
+        cache.invalidate();
+        for (int x = 0; x < 10; ++x) {
+            cache.put(new TileCache.Tile(0, 1.0f, 2.0, x, 0), image(2.0));
+        }
+        assertEquals(1, countCached(cache, 0, 2.0, 10));
+
+        // an image larger than the capacity is not kept
+        cache.put(new TileCache.Tile(0, 1.0f, 3.0, 0, 0), image(3.0));
+        assertNull(cache.get(new TileCache.Tile(0, 1.0f, 3.0, 0, 0)));
+    }
+
+    @Test
+    public void testReusedImagesCountOnce() {
+        TileCache cache = new TileCache(MEGABYTE);
+        for (int x = 0; x < 4; ++x) {
+            cache.put(new TileCache.Tile(0, 1.0f, 1.0, x, 0), image(1.0));
+        }
+        List<TileCache.Tile> tiles = cache.getTiles(0, 1.0f);
+        for (int round = 1; round <= 3; ++round) {
+            cache.reuse(tiles, round);
+        }
+        for (int round = 0; round <= 3; ++round) {
+            assertEquals(4, countCached(cache, round, 1.0, 4), "round " + round);
+        }
+
+        // the least recently used tiles are evicted until an image is released, which happens with the last tile
+        // sharing it
+        cache.put(new TileCache.Tile(4, 1.0f, 1.0, 0, 0), image(1.0));
+        assertNotNull(cache.get(new TileCache.Tile(4, 1.0f, 1.0, 0, 0)));
+        for (int round = 0; round <= 2; ++round) {
+            assertEquals(0, countCached(cache, round, 1.0, 4), "round " + round);
+        }
+        assertNull(cache.get(new TileCache.Tile(3, 1.0f, 1.0, 0, 0)));
+        assertEquals(3, countCached(cache, 3, 1.0, 4));
+    }
+
+    @Test
+    public void testZeroCapacityDisablesCache() {
+        TileCache cache = new TileCache(0);
+        cache.put(new TileCache.Tile(0, 1.0f, 1.0, 0, 0), image(1.0));
+        assertNull(cache.get(new TileCache.Tile(0, 1.0f, 1.0, 0, 0)));
+    }
+
+    /**
+     * Prefetches a tile whose drawing fails, optionally after the cache is invalidated during the drawing.
+     *
+     * @return the exception which reached the Event Dispatch Thread or null.
+     */
+    private static Throwable prefetchFailing(boolean invalidate) throws Exception {
+        TileCache cache = new TileCache(MEGABYTE);
+        TileCache.Tile tile = new TileCache.Tile(0, 1.0f, 1.0, 0, 0);
+        IllegalStateException failure = new IllegalStateException("drawing failed");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch reported = new CountDownLatch(1);
+        AtomicReference<Throwable> caught = new AtomicReference<>();
+        Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) -> {
+            caught.set(e);
+            reported.countDown();
+        });
+        try {
+            SwingUtilities.invokeAndWait(() -> {
+                cache.setWanted(Set.of(tile));
+                cache.prefetch(tile, t -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw failure;
+                });
+            });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            if (invalidate) {
+                SwingUtilities.invokeAndWait(cache::invalidate);
+            }
+            release.countDown();
+            reported.await(invalidate ? 1 : 10, TimeUnit.SECONDS);
+            return caught.get();
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(handler);
+        }
+    }
+
+    @Test
+    public void testPrefetchFailureIsRethrown() throws Exception {
+        Throwable caught = prefetchFailing(false);
+        assertNotNull(caught, "The failure of drawing the tile was swallowed");
+        assertSame(IllegalStateException.class, caught.getClass());
+    }
+
+    @Test
+    public void testPrefetchFailureAfterLayoutChangeIsDropped() throws Exception {
+        assertNull(prefetchFailing(true));
+    }
+}
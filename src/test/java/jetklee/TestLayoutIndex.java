@@ -0,0 +1,89 @@
+package jetklee;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestLayoutIndex {
+
+    /**
+     * @return random tree with the root at index 0 and random locations, many nodes share a row or a location.
+     * The last nodes form another tree which is not indexed.
+     */
+    private static NodeTable randomTree(Random random, int nodeCount, int outsideCount) {
+        NodeTable nodes = new NodeTable();
+        List<Integer> free = new ArrayList<>();
+        for (int i = 0; i < nodeCount + outsideCount; ++i) {
+            int node = nodes.add(i + 1);
+            nodes.setX(node, random.nextInt(3) == 0 ? 25 * random.nextInt(8) : random.nextInt(4000) - 1000);
+            nodes.setY(node, random.nextInt(5) == 0 ? random.nextInt(2000) - 500 : 250 * random.nextInt(10));
+            if (i != 0 && i != nodeCount) {
+                int parent = free.get(random.nextInt(free.size()));
+                nodes.setParent(node, parent);
+                if (nodes.getLeft(parent) == NodeTable.NONE) {
+                    nodes.setLeft(parent, node);
+                } else {
+                    nodes.setRight(parent, node);
+                    free.remove(Integer.valueOf(parent));
+                }
+            }
+            if (i == nodeCount) {
+                // the other tree
+                free.clear();
+            }
+            free.add(node);
+        }
+        return nodes;
+    }
+
+    private static List<Integer> scan(NodeTable nodes, int nodeCount, long minX, long minY, long maxX, long maxY) {
+        List<Integer> result = new ArrayList<>();
+        for (int node = 0; node < nodeCount; ++node) {
+            if (minX <= nodes.getX(node) && nodes.getX(node) <= maxX
+                    && minY <= nodes.getY(node) && nodes.getY(node) <= maxY) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    private static List<Integer> find(LayoutIndex index, long minX, long minY, long maxX, long maxY) {
+        List<Integer> result = new ArrayList<>();
+        index.forEachNode(minX, minY, maxX, maxY, result::add);
+        Collections.sort(result);
+        return result;
+    }
+
+    @Test
+    public void testMatchesScan() {
+        Random random = new Random(22);
+        for (int iteration = 0; iteration < 50; ++iteration) {
+            int nodeCount = 1 + random.nextInt(300);
+            NodeTable nodes = randomTree(random, nodeCount, random.nextInt(20));
+            LayoutIndex index = new LayoutIndex(nodes, 0);
+
+            for (int query = 0; query < 200; ++query) {
+                long minX = random.nextInt(5000) - 1500;
+                long minY = random.nextInt(3000) - 700;
+                long maxX = minX + random.nextInt(query % 10 == 0 ? 5000 : 400) - 20;
+                long maxY = minY + random.nextInt(query % 10 == 0 ? 3000 : 600) - 20;
+                assertEquals(scan(nodes, nodeCount, minX, minY, maxX, maxY), find(index, minX, minY, maxX, maxY),
+                        "iteration " + iteration + ", rectangle " + minX + " " + minY + " " + maxX + " " + maxY);
+            }
+            // a single location, a rectangle covering everything and bounds outside of the int range
+            int x = nodes.getX(0);
+            int y = nodes.getY(0);
+            assertEquals(scan(nodes, nodeCount, x, y, x, y), find(index, x, y, x, y));
+            assertEquals(scan(nodes, nodeCount, Long.MIN_VALUE, Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE),
+                    find(index, Long.MIN_VALUE, Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE));
+            assertEquals(nodeCount, find(index, Long.MIN_VALUE, Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE)
+                    .size());
+            assertEquals(List.of(), find(index, 1L << 40, Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE));
+        }
+    }
+}
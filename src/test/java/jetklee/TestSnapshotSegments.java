@@ -0,0 +1,84 @@
+package jetklee;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestSnapshotSegments {
+    private static final int NODE_COUNT = 20;
+
+    private static String insertNode(int nodeID, int depth) {
+        return "{\"action\": \"InsertNode\", \"nodeID\": " + nodeID + ", \"stateID\": " + nodeID
+                + ", \"uniqueState\": 1, \"firstLocation\": [\"a.c\", " + nodeID + ", 1, 3], \"depth\": " + depth
+                + ", \"stack\": [[\"a.c\", 1, 1, 2]]}";
+    }
+
+    private static String memory(int nodeID) {
+        return "{\"action\": \"InsertInfo\", \"nodeID\": " + nodeID + ", \"parentIter\": 0, \"coveredNew\": 0, "
+                + "\"forkDisabled\": 0, \"instsSinceCovNew\": 1, \"steppedInstructions\": 5, "
+                + "\"lastLocation\": [\"a.c\", 1, 1, 3], \"constraints\": [\"(Eq " + nodeID + " x)\"], "
+                + "\"objects\": {\"added\": [{\"objID\": " + nodeID + ", \"segment\": 1, \"name\": \"object "
+                + nodeID + "\", \"size\": \"1\", \"isLocal\": 1, \"isFixed\": 0, \"isUserSpec\": 0, \"isLazy\": 0, "
+                + "\"copyOnWriteOwner\": 0, \"readOnly\": 0, \"segmentPlane\": {}, \"offsetPlane\": {}}], "
+                + "\"changed\": [], \"deleted\": []}}";
+    }
+
+    /**
+     * Records a path of nodes, each inserted in its own round and with its own memory file.
+     */
+    private static void record(Path dir) throws Exception {
+        Files.createDirectories(dir.resolve("Tree"));
+        Files.createDirectories(dir.resolve("States"));
+        Files.writeString(dir.resolve("Tree/0.json"), "[" + insertNode(1, 0) + "]");
+        for (int nodeID = 2; nodeID <= NODE_COUNT; ++nodeID) {
+            Files.writeString(dir.resolve("Tree/" + (nodeID - 1) + ".json"), "[" + insertNode(nodeID, nodeID - 1)
+                    + ", {\"action\": \"InsertEdge\", \"parentID\": " + (nodeID - 1) + ", \"nodeID\": " + nodeID
+                    + "}]");
+        }
+        for (int nodeID = 1; nodeID <= NODE_COUNT; ++nodeID) {
+            Files.writeString(dir.resolve("States/" + nodeID + ".json"), memory(nodeID));
+        }
+    }
+
+    @Test
+    public void testSnapshotMappedInSegments(@TempDir Path dir) throws Exception {
+        record(dir);
+        Tree loaded = new Tree();
+        loaded.load(dir.toString());
+        loaded.saveSnapshot();
+        long size = Files.size(dir.resolve("ProgressExplorer.snapshot"));
+
+        // segments shorter than the file, the strides do not divide the offsets of the blocks
+        int segmentLength = 4096;
+        assertTrue(size > segmentLength);
+        for (int stride : new int[]{7, 64, 1000}) {
+            Tree restored = new Tree();
+            assertTrue(RecordingSnapshot.restore(restored, dir, new NodeInfoCache(NODE_COUNT), stride,
+                    segmentLength));
+            assertEquals(NODE_COUNT, restored.getNodes().size());
+            for (int nodeID = 1; nodeID <= NODE_COUNT; ++nodeID) {
+                ExecutionState es = restored.getNodes().get(nodeID).getExecutionState();
+                assertEquals(nodeID, es.getInsertContext().firstLocation().line());
+                assertEquals("object " + nodeID, es.getMemory().additions().get(0).name());
+                assertEquals("(Eq " + nodeID + " x)", es.getConstraints().get(0));
+            }
+        }
+    }
+
+    @Test
+    public void testBlockLongerThanOverlapIsRejected(@TempDir Path dir) throws Exception {
+        record(dir);
+        Tree loaded = new Tree();
+        loaded.load(dir.toString());
+        loaded.saveSnapshot();
+
+        // the node table does not fit in a segment starting where it starts
+        assertFalse(RecordingSnapshot.restore(new Tree(), dir, new NodeInfoCache(NODE_COUNT), 16, 32));
+    }
+}
@@ -0,0 +1,173 @@
+package jetklee;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestTreeViewerAreas {
+    // half of the node size and the border around the tree, as in TreeViewer
+    private static final int HALF_NODE_WIDTH = 50;
+    private static final int HALF_NODE_HEIGHT = 25;
+    private static final int BORDER_SIZE = 100;
+
+    /**
+     * @return random tree with the root of id 1. Some nodes have a single child and some subtrees are erased before
+     * their descendants.
+     */
+    private static NodeTable randomTree(Random random, int nodeCount, int roundCount) {
+        NodeTable nodes = new NodeTable();
+        int root = nodes.add(1);
+        nodes.setStartRound(root, 0);
+        nodes.setEndRound(root, roundCount);
+        List<Integer> leaves = new ArrayList<>(List.of(root));
+        int id = 2;
+        while (nodes.size() + 2 <= nodeCount) {
+            int parent = leaves.remove(random.nextInt(leaves.size()));
+            int start = Math.min(nodes.getStartRound(parent) + 1 + random.nextInt(2), roundCount - 1);
+            int childCount = random.nextInt(10) == 0 ? 1 : 2;
+            for (int i = 0; i < childCount; ++i) {
+                int child = nodes.add(id++);
+                nodes.setParent(child, parent);
+                if (i == 0) {
+                    nodes.setLeft(parent, child);
+                } else {
+                    nodes.setRight(parent, child);
+                }
+                nodes.setStartRound(child, start);
+                nodes.setEndRound(child, random.nextInt(5) == 0 ? start + 1 + random.nextInt(3) : roundCount);
+                leaves.add(child);
+            }
+        }
+        for (int node = 0; node < nodes.size(); ++node) {
+            if (random.nextInt(15) == 0) {
+                nodes.setEndRound(node, Math.max(nodes.getStartRound(node) + 1, random.nextInt(roundCount + 1)));
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Computes the area of the round by traversing the nodes drawn in it, like the viewer did before the sweep.
+     */
+    private static Dimension traverseArea(NodeTable nodes, int round) {
+        Dimension area = new Dimension(0, 0);
+        ArrayDeque<Integer> stack = new ArrayDeque<>();
+        stack.push(nodes.indexOf(1));
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            if (node == NodeTable.NONE || nodes.getStartRound(node) > round || round >= nodes.getEndRound(node)) {
+                continue;
+            }
+            area.width = Math.max(area.width, nodes.getX(node) + HALF_NODE_WIDTH);
+            area.height = Math.max(area.height, nodes.getY(node) + HALF_NODE_HEIGHT);
+            stack.push(nodes.getLeft(node));
+            stack.push(nodes.getRight(node));
+        }
+        area.width += BORDER_SIZE;
+        area.height += BORDER_SIZE;
+        return area;
+    }
+
+    private static void assertAreas(TreeViewer viewer, Tree tree, String context) {
+        for (int round = 0; round < tree.getRoundCounter(); ++round) {
+            viewer.setSelectedRound(round);
+            viewer.updateArea();
+            assertEquals(traverseArea(tree.getNodes(), round), viewer.getPreferredSize(),
+                    context + ": area of round " + round);
+        }
+    }
+
+    /**
+     * Copies the node into another table, linked to its parent if the parent is already there.
+     */
+    private static void copy(NodeTable from, NodeTable to, int node, int maxEndRound) {
+        int id = from.getId(node);
+        int copy = to.indexOf(id) == NodeTable.NONE ? to.add(id) : to.indexOf(id);
+        to.setStartRound(copy, from.getStartRound(node));
+        to.setEndRound(copy, Math.min(from.getEndRound(node), maxEndRound));
+        int parent = from.getParent(node);
+        if (parent != NodeTable.NONE && to.indexOf(from.getId(parent)) != NodeTable.NONE) {
+            int parentCopy = to.indexOf(from.getId(parent));
+            to.setParent(copy, parentCopy);
+            if (from.getLeft(parent) == node) {
+                to.setLeft(parentCopy, copy);
+            } else {
+                to.setRight(parentCopy, copy);
+            }
+        }
+    }
+
+    /**
+     * Copies the nodes of the full tree which start before the round into the table of the tree. Nodes drawn in
+     * the last of the rounds are open like in a recording which is still being written.
+     */
+    private static void restorePrefix(Tree tree, NodeTable nodes, NodeTable full, int roundCount) {
+        Integer[] order = new Integer[full.size()];
+        for (int node = 0; node < order.length; ++node) {
+            order[node] = node;
+        }
+        // parents start before their children
+        Arrays.sort(order, Comparator.comparingInt(full::getStartRound));
+        for (int node : order) {
+            if (full.getStartRound(node) < roundCount) {
+                copy(full, nodes, node, roundCount);
+            }
+        }
+        tree.restore(roundCount, new ArrayList<>(), nodes, new HashSet<>());
+    }
+
+    @Test
+    public void testSweepMatchesTraversal() {
+        Random random = new Random(21);
+        for (int iteration = 0; iteration < 40; ++iteration) {
+            int roundCount = 2 + random.nextInt(30);
+            NodeTable full = randomTree(random, 2 + random.nextInt(400), roundCount);
+            Tree tree = new Tree();
+            tree.restore(roundCount, new ArrayList<>(), full, new HashSet<>());
+            TreeViewer viewer = new TreeViewer(tree);
+            viewer.load();
+            assertAreas(viewer, tree, "iteration " + iteration);
+        }
+    }
+
+    @Test
+    public void testExtendedTreeMatchesTraversal() {
+        Random random = new Random(210);
+        for (int iteration = 0; iteration < 40; ++iteration) {
+            int roundCount = 3 + random.nextInt(30);
+            NodeTable full = randomTree(random, 2 + random.nextInt(400), roundCount);
+            int loadedRounds = 1 + random.nextInt(roundCount - 1);
+            int appendedRounds = loadedRounds + 1 + random.nextInt(roundCount - loadedRounds);
+            Tree tree = new Tree();
+            restorePrefix(tree, new NodeTable(), full, loadedRounds);
+            TreeViewer viewer = new TreeViewer(tree);
+            viewer.load();
+            assertAreas(viewer, tree, "iteration " + iteration + ", loaded");
+
+            // rounds with new nodes, which move the layout, the areas of the old rounds are computed when selected
+            restorePrefix(tree, tree.getNodes(), full, appendedRounds);
+            viewer.extend();
+            assertAreas(viewer, tree, "iteration " + iteration + ", appended");
+
+            // a round which only erases nodes, the layout is kept and only the area of the new round is computed
+            NodeTable nodes = tree.getNodes();
+            for (int node = 0; node < nodes.size(); ++node) {
+                if (nodes.getEndRound(node) == appendedRounds) {
+                    nodes.setEndRound(node, random.nextInt(3) == 0 ? appendedRounds : appendedRounds + 1);
+                }
+            }
+            tree.restore(appendedRounds + 1, new ArrayList<>(), nodes, new HashSet<>());
+            viewer.extend();
+            assertAreas(viewer, tree, "iteration " + iteration + ", erased");
+        }
+    }
+}